@@ -0,0 +1,96 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.cyfko.typeindex.TypeKeyRegistry;
+import io.github.cyfko.typeindex.codec.EnvelopeCodec;
+import io.github.cyfko.typeindex.codec.ValueCodec;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link EnvelopeCodec} with serializing the same envelopes as JSON through Jackson,
+ * both ways, including the conversion of decoded values back to their types by
+ * {@link TypeKeyRegistry#unwrap(List, java.util.function.BiFunction)}.
+ * <p>
+ * Parameter lists mix strings, boxed primitives, nulls and a type needing a value codec
+ * ({@link UUID}), repeated so that larger lists exercise the key dictionary. Encoded sizes are
+ * printed at setup.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeCodecBenchmark {
+
+    private static final TypeReference<List<ParamEnvelope>> ENVELOPES = new TypeReference<>() {
+    };
+
+    @Param({"4", "64"})
+    public int params;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private final EnvelopeCodec codec = EnvelopeCodec.defaults()
+            .withValueCodec(UUID.class, ValueCodec.of(
+                    (out, id) -> out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()),
+                    in -> new UUID(in.getLong(), in.getLong())));
+
+    private List<ParamEnvelope> envelopes;
+    private ByteBuffer out;
+    private ByteBuffer binary;
+    private byte[] text;
+
+    @Setup
+    public void setUp() throws IOException {
+        Object[] values = new Object[params];
+        for (int i = 0; i < params; i++) {
+            values[i] = switch (i % 8) {
+                case 0 -> "order-" + i;
+                case 1 -> i;
+                case 2 -> (long) i << 40;
+                case 3 -> null;
+                case 4 -> i * 0.5;
+                case 5 -> i % 2 == 0;
+                case 6 -> new UUID(i, -i);
+                default -> "customer-" + i;
+            };
+        }
+        envelopes = TypeKeyRegistry.wrap(values);
+
+        binary = codec.encode(envelopes);
+        out = ByteBuffer.allocate(binary.capacity());
+        text = json.writeValueAsBytes(envelopes);
+        System.out.printf("%n%d parameters: %d bytes binary, %d bytes JSON%n", params, binary.limit(), text.length);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        codec.encode(envelopes, out.clear());
+        return out;
+    }
+
+    @Benchmark
+    public Object[] decodeBinary() {
+        return TypeKeyRegistry.unwrap(codec.decode(binary.rewind()), (value, type) -> value);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return json.writeValueAsBytes(envelopes);
+    }
+
+    @Benchmark
+    public Object[] decodeJson() throws IOException {
+        return TypeKeyRegistry.unwrap(json.readValue(text, ENVELOPES), json::convertValue);
+    }
+}
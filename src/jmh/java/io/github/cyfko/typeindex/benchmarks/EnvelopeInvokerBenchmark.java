@@ -0,0 +1,56 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import io.github.cyfko.typeindex.EnvelopeInvoker;
+import io.github.cyfko.typeindex.TypeKeyRegistry;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Compares dispatching a wrapped invocation through {@link EnvelopeInvoker} with unwrapping it by
+ * {@link TypeKeyRegistry#unwrap(List, BiFunction)} and calling {@link Method#invoke(Object, Object...)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeInvokerBenchmark {
+
+    private static final BiFunction<Object, Class<?>, Object> AS_IS = (value, type) -> value;
+
+    public static class OrderService {
+        public String place(String customer, int quantity, LocalDate date, Object note) {
+            return customer;
+        }
+    }
+
+    private final OrderService service = new OrderService();
+    private List<ParamEnvelope> envelopes;
+    private Method method;
+    private EnvelopeInvoker invoker;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        envelopes = TypeKeyRegistry.wrap(new Object[]{"customer-1", 3, LocalDate.of(2024, 1, 1), null});
+        method = OrderService.class.getMethod("place", String.class, int.class, LocalDate.class, Object.class);
+        invoker = EnvelopeInvoker.of(MethodHandles.lookup(), OrderService.class, "place");
+    }
+
+    @Benchmark
+    public Object reflection() throws ReflectiveOperationException {
+        return method.invoke(service, TypeKeyRegistry.unwrap(envelopes, AS_IS));
+    }
+
+    @Benchmark
+    public Object invoker() throws Throwable {
+        return invoker.invoke(service, envelopes, AS_IS);
+    }
+}
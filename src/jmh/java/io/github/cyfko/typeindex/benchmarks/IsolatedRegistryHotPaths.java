@@ -0,0 +1,60 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import io.github.cyfko.typeindex.TypeKeyRegistry;
+import io.github.cyfko.typeindex.WrapPlan;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+
+import java.util.List;
+
+/**
+ * {@link RegistryHotPaths} delegating to {@link TypeKeyRegistry}.
+ * <p>
+ * Only meant to be loaded through {@link SyntheticRegistry#isolatedLoader(Class...)}, where
+ * {@code TypeKeyRegistry} is bound to the synthetic registry.
+ * </p>
+ */
+public final class IsolatedRegistryHotPaths implements RegistryHotPaths {
+
+    @Override
+    public Class<?> resolve(String key) {
+        return TypeKeyRegistry.resolve(key);
+    }
+
+    @Override
+    public boolean canResolve(String key) {
+        return TypeKeyRegistry.canResolve(key);
+    }
+
+    @Override
+    public String keyOf(Class<?> type) {
+        return TypeKeyRegistry.keyOf(type);
+    }
+
+    @Override
+    public List<?> wrap(Object[] params) {
+        return TypeKeyRegistry.wrap(params);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object[] unwrap(List<?> envelopes) {
+        return TypeKeyRegistry.unwrap((List<ParamEnvelope>) envelopes, (value, type) -> value);
+    }
+
+    @Override
+    public Object wrapPlan(Class<?>[] parameterTypes) {
+        return TypeKeyRegistry.wrapPlan(parameterTypes);
+    }
+
+    @Override
+    public List<?> wrap(Object plan, Object[] params) {
+        return ((WrapPlan) plan).wrap(params);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object[] unwrapPlanned(List<?> envelopes) {
+        List<ParamEnvelope> list = (List<ParamEnvelope>) envelopes;
+        return TypeKeyRegistry.unwrapPlanOf(list).unwrap(list, (value, type) -> value);
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import io.github.cyfko.typeindex.ParallelOptions;
+import io.github.cyfko.typeindex.TypeKeyRegistry;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Locates the crossover between sequential and parallel
+ * {@link TypeKeyRegistry#unwrap(List, BiFunction, ParallelOptions)}, for growing parameter lists
+ * and mappers of growing cost.
+ * <p>
+ * A {@code cpu} mapper burns {@code cost} {@link Blackhole#consumeCPU(long)} tokens per value and
+ * suits the fork-join mode; a {@code blocking} mapper parks for {@code cost} nanoseconds, as a
+ * mapper waiting on I/O would, and suits virtual threads. Parallel modes run with a threshold of
+ * {@code 1} so that every size is measured in parallel.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelUnwrapBenchmark {
+
+    @Param({"8", "64", "512", "4096"})
+    public int params;
+
+    @Param({"cpu", "blocking"})
+    public String mapper;
+
+    @Param({"100", "10000"})
+    public long cost;
+
+    private List<ParamEnvelope> envelopes;
+    private BiFunction<Object, Class<?>, Object> convert;
+    private ParallelOptions forkJoin;
+    private ParallelOptions virtualThreads;
+
+    @Setup
+    public void setUp() {
+        Object[] values = new Object[params];
+        for (int i = 0; i < params; i++) {
+            values[i] = i % 2 == 0 ? "value-" + i : i;
+        }
+        envelopes = TypeKeyRegistry.wrap(values);
+
+        long cost = this.cost;
+        convert = mapper.equals("cpu")
+                ? (value, type) -> {
+                    Blackhole.consumeCPU(cost);
+                    return value;
+                }
+                : (value, type) -> {
+                    LockSupport.parkNanos(cost);
+                    return value;
+                };
+        forkJoin = ParallelOptions.defaults().withThreshold(1);
+        virtualThreads = forkJoin.withVirtualThreads();
+    }
+
+    @Benchmark
+    public Object[] sequential() {
+        return TypeKeyRegistry.unwrap(envelopes, convert);
+    }
+
+    @Benchmark
+    public Object[] forkJoin() {
+        return TypeKeyRegistry.unwrap(envelopes, convert, forkJoin);
+    }
+
+    @Benchmark
+    public Object[] virtualThreads() {
+        return TypeKeyRegistry.unwrap(envelopes, convert, virtualThreads);
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import io.github.cyfko.typeindex.processor.TypeIndexProcessor;
+import io.github.cyfko.typeindex.providers.RegistryProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the startup cost of a generated provider with eager and lazy class loading
+ * ({@code -Atypeindex.classLoading}).
+ * <p>
+ * A synthetic registry of {@code size} classes is compiled once per trial with
+ * {@link TypeIndexProcessor}. Each invocation loads it in a fresh class loader, instantiates the
+ * provider and resolves a single key, as a service handling its first request would. Besides
+ * the elapsed time, the number of classes loaded and the metaspace growth of each invocation are
+ * reported as secondary metrics.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ProviderStartupBenchmark {
+
+    private static final String PROVIDER = "io.github.cyfko.typeindex.providers.RegistryProviderImpl";
+
+    @Param({"200", "1000", "20000"})
+    public int size;
+
+    @Param({"eager", "lazy"})
+    public String classLoading;
+
+    private SyntheticRegistry registry;
+    private URL[] classpath;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long loadedClasses;
+        public long metaspaceBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void compileRegistry() throws IOException {
+        registry = SyntheticRegistry.compile(size, "typeindex.classLoading=" + classLoading);
+        classpath = registry.classpath();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRegistry() throws IOException {
+        registry.close();
+    }
+
+    @Benchmark
+    public Class<?> firstLookup(Footprint footprint) throws Exception {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        long loadedBefore = classLoading.getTotalLoadedClassCount();
+        long metaspaceBefore = metaspaceUsed();
+
+        try (URLClassLoader loader = new URLClassLoader(classpath, getClass().getClassLoader())) {
+            RegistryProvider provider = (RegistryProvider) Class.forName(PROVIDER, true, loader)
+                    .getDeclaredConstructor()
+                    .newInstance();
+            Class<?> type = provider.lookup(SyntheticRegistry.key(size / 2));
+
+            footprint.loadedClasses += classLoading.getTotalLoadedClassCount() - loadedBefore;
+            footprint.metaspaceBytes += metaspaceUsed() - metaspaceBefore;
+            return type;
+        }
+    }
+
+    private static long metaspaceUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals("Metaspace")) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+}
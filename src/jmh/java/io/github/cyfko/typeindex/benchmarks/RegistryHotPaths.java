@@ -0,0 +1,35 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import java.util.List;
+
+/**
+ * The {@code TypeKeyRegistry} operations measured by {@link TypeKeyRegistryBenchmark}.
+ * <p>
+ * Benchmarks call them through this interface, whose implementation lives in the class loader of
+ * a {@link SyntheticRegistry}. Only JDK types cross the boundary; each call site sees a single
+ * implementation, which the JIT inlines.
+ * </p>
+ */
+public interface RegistryHotPaths {
+
+    Class<?> resolve(String key);
+
+    boolean canResolve(String key);
+
+    String keyOf(Class<?> type);
+
+    /** @return The {@code List<ParamEnvelope>} wrapping the given parameters. */
+    List<?> wrap(Object[] params);
+
+    /** Unwraps a list returned by {@link #wrap(Object[])}, passing values through unchanged. */
+    Object[] unwrap(List<?> envelopes);
+
+    /** @return A {@code WrapPlan} for the given declared parameter types. */
+    Object wrapPlan(Class<?>[] parameterTypes);
+
+    /** Wraps parameters with a plan returned by {@link #wrapPlan(Class[])}. */
+    List<?> wrap(Object plan, Object[] params);
+
+    /** Unwraps like {@link #unwrap(List)}, through the cached {@code UnwrapPlan} of the envelopes' signature. */
+    Object[] unwrapPlanned(List<?> envelopes);
+}
@@ -0,0 +1,89 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import io.github.cyfko.typeindex.providers.PerfectHash;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two lookup structures a generated provider can answer from:
+ * the {@code Map.ofEntries(...)} registry and the compile-time minimal perfect hash
+ * probed by {@code lookup(String)}.
+ * <p>
+ * Both are built over the same synthetic key set. Probe keys are distinct
+ * {@link String} instances so that neither side benefits from the identity
+ * short-cut of {@link String#equals(Object)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryLookupBenchmark {
+
+    private static final Class<?>[] POOL = {
+            String.class, Integer.class, Long.class, Double.class, List.class, Map.class,
+            ArrayList.class, StringBuilder.class, Thread.class, Runnable.class
+    };
+
+    @Param({"10", "1000", "50000"})
+    public int size;
+
+    private Map<String, Class<?>> map;
+
+    private long seed;
+    private int[] displacements;
+    private String[] keys;
+    private Class<?>[] types;
+
+    private String[] probes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<String> keyList = new ArrayList<>(size);
+        @SuppressWarnings("unchecked")
+        Map.Entry<String, Class<?>>[] entries = new Map.Entry[size];
+        for (int i = 0; i < size; i++) {
+            String key = "type.key-" + i;
+            keyList.add(key);
+            entries[i] = Map.entry(key, POOL[i % POOL.length]);
+        }
+        map = Map.ofEntries(entries);
+
+        PerfectHash table = PerfectHash.build(keyList);
+        seed = table.seed();
+        displacements = table.displacements();
+        keys = new String[size];
+        types = new Class<?>[size];
+        for (int i = 0; i < size; i++) {
+            keys[table.slotOf(i)] = keyList.get(i);
+            types[table.slotOf(i)] = POOL[i % POOL.length];
+        }
+
+        probes = new String[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = new String(keyList.get((int) ((i * 2654435761L) % size)));
+        }
+    }
+
+    private String nextProbe() {
+        return probes[cursor++ & (probes.length - 1)];
+    }
+
+    @Benchmark
+    public Class<?> mapOfEntries() {
+        return map.get(nextProbe());
+    }
+
+    @Benchmark
+    public Class<?> perfectHash() {
+        String key = nextProbe();
+        int slot = PerfectHash.slot(PerfectHash.hash(key, seed), displacements, keys.length);
+        return keys[slot].equals(key) ? types[slot] : null;
+    }
+}
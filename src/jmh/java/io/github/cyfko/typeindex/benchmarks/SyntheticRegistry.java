@@ -0,0 +1,158 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import io.github.cyfko.typeindex.TypeKey;
+import io.github.cyfko.typeindex.processor.TypeIndexProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Registry of {@code size} synthetic {@code @TypeKey} classes, compiled with {@link TypeIndexProcessor}
+ * into a temporary directory.
+ * <p>
+ * Class {@code bench.Type<i>} is registered under {@link #key(int) "type-<i>"}. The directory holds
+ * the generated {@code RegistryProviderImpl}, so that {@link #isolatedLoader(Class...)} can load a
+ * copy of the library bound to this registry.
+ * </p>
+ */
+final class SyntheticRegistry implements AutoCloseable {
+
+    private final int size;
+    private final Path classes;
+
+    private SyntheticRegistry(int size, Path classes) {
+        this.size = size;
+        this.classes = classes;
+    }
+
+    /**
+     * Compiles a synthetic registry.
+     *
+     * @param size             Number of registered classes.
+     * @param processorOptions Options passed to the processor, without the {@code -A} prefix.
+     */
+    static SyntheticRegistry compile(int size, String... processorOptions) throws IOException {
+        Path sources = Files.createTempDirectory("typeindex-bench-src");
+        Path classes = Files.createTempDirectory("typeindex-bench-classes");
+
+        List<File> files = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Path file = sources.resolve("Type" + i + ".java");
+            Files.writeString(file, "package bench; @io.github.cyfko.typeindex.TypeKey(\"" + key(i) + "\")"
+                    + " public class Type" + i + " { public static final String NAME = \"" + i + "\"; }");
+            files.add(file.toFile());
+        }
+
+        List<String> options = new ArrayList<>(List.of("-d", classes.toString(), "-classpath", location(TypeKey.class)));
+        for (String option : processorOptions) {
+            options.add("-A" + option);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(List.of(new TypeIndexProcessor()));
+            if (!task.call()) {
+                throw new IllegalStateException("Failed to compile the synthetic registry");
+            }
+        } finally {
+            delete(sources);
+        }
+        return new SyntheticRegistry(size, classes);
+    }
+
+    /** @return The key of the {@code i}-th registered class. */
+    static String key(int i) {
+        return "type-" + i;
+    }
+
+    /** @return The binary name of the {@code i}-th registered class. */
+    static String className(int i) {
+        return "bench.Type" + i;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return A class path holding only the synthetic classes and the generated provider. */
+    URL[] classpath() {
+        return new URL[]{url(classes)};
+    }
+
+    /**
+     * Returns a class loader seeing the synthetic registry and its own copy of the library.
+     * <p>
+     * Classes of the {@code io.github.cyfko.typeindex} packages are loaded child-first, so that
+     * {@code TypeKeyRegistry} binds to this registry's provider rather than to the one, if any,
+     * of the benchmark class path. The given classes are shared with the benchmark instead,
+     * typically the interface through which it drives the isolated copy.
+     * </p>
+     */
+    ClassLoader isolatedLoader(Class<?>... shared) {
+        List<String> sharedNames = Stream.of(shared).map(Class::getName).toList();
+        URL[] urls = {url(classes), url(Path.of(location(TypeKey.class))), url(Path.of(location(SyntheticRegistry.class)))};
+
+        return new URLClassLoader(urls, SyntheticRegistry.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.startsWith("io.github.cyfko.typeindex.") || sharedNames.contains(name)) {
+                    return super.loadClass(name, resolve);
+                }
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> type = findLoadedClass(name);
+                    if (type == null) {
+                        type = findClass(name);
+                    }
+                    if (resolve) {
+                        resolveClass(type);
+                    }
+                    return type;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        delete(classes);
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static URL url(Path path) {
+        try {
+            return path.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
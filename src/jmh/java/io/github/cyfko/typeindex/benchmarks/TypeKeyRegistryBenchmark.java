@@ -0,0 +1,207 @@
+package io.github.cyfko.typeindex.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@code TypeKeyRegistry} hot paths against generated registries of synthetic sizes.
+ * <p>
+ * Each trial compiles a {@link SyntheticRegistry} with the annotation processor and drives a copy of
+ * the library bound to it (see {@link RegistryHotPaths}). Probe keys are distinct {@link String}
+ * instances, cycled per thread, so that lookups neither hit the identity short-cut of
+ * {@link String#equals(Object)} nor always land on the same slot.
+ * </p>
+ *
+ * <p>
+ * The nested subclasses run the same benchmarks on 4 threads and on one thread per core. Run with
+ * {@code -prof gc} to report allocation rates alongside the timings.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class TypeKeyRegistryBenchmark {
+
+    private static final int PROBES = 1024;
+
+    private static final String[] PRIMITIVE_KEYS = {"int", "long", "double", "boolean"};
+
+    private static final String[] CLASS_NAME_KEYS = {
+            "java.lang.String", "java.util.ArrayList", "java.time.LocalDate", "java.util.UUID"
+    };
+
+    @Param({"10", "1000", "50000"})
+    public int size;
+
+    private SyntheticRegistry registry;
+    private RegistryHotPaths paths;
+
+    private String[] registeredKeys;
+    private String[] arrayKeys;
+    private String[] primitiveKeys;
+    private String[] classNameKeys;
+    private String[] missingKeys;
+    private Class<?>[] registeredTypes;
+    private Object[][] params;
+    private Object[] wrapPlans;
+    private List<?>[] envelopes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ & (PROBES - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        registry = SyntheticRegistry.compile(size);
+        ClassLoader loader = registry.isolatedLoader(RegistryHotPaths.class);
+        paths = (RegistryHotPaths) loader
+                .loadClass(IsolatedRegistryHotPaths.class.getName())
+                .getDeclaredConstructor()
+                .newInstance();
+
+        registeredKeys = new String[PROBES];
+        arrayKeys = new String[PROBES];
+        primitiveKeys = new String[PROBES];
+        classNameKeys = new String[PROBES];
+        missingKeys = new String[PROBES];
+        registeredTypes = new Class<?>[PROBES];
+        params = new Object[PROBES][];
+        wrapPlans = new Object[PROBES];
+
+        for (int p = 0; p < PROBES; p++) {
+            int i = (int) ((p * 2654435761L) % size);
+            Class<?> type = loader.loadClass(SyntheticRegistry.className(i));
+
+            registeredKeys[p] = new String(SyntheticRegistry.key(i));
+            arrayKeys[p] = new String(p % 2 == 0 ? SyntheticRegistry.key(i) + "[]" : "[L" + type.getName() + ";");
+            primitiveKeys[p] = new String(PRIMITIVE_KEYS[p % PRIMITIVE_KEYS.length]);
+            classNameKeys[p] = new String(CLASS_NAME_KEYS[p % CLASS_NAME_KEYS.length]);
+            missingKeys[p] = "missing.Type" + p;
+            registeredTypes[p] = type;
+            Class<?> other = loader.loadClass(SyntheticRegistry.className((i + 1) % size));
+            params[p] = parameterMix(type, other, p);
+            wrapPlans[p] = paths.wrapPlan(declaredTypes(type, other));
+        }
+
+        envelopes = new List<?>[PROBES];
+        for (int p = 0; p < PROBES; p++) {
+            envelopes[p] = paths.wrap(params[p]);
+        }
+    }
+
+    /** A typical argument list: registered DTOs, JDK values, an array, a primitive array and a null. */
+    private static Object[] parameterMix(Class<?> type, Class<?> other, int p) throws Exception {
+        return new Object[]{
+                type.getDeclaredConstructor().newInstance(),
+                "order-" + p,
+                p,
+                null,
+                LocalDate.of(2024, 1, 1 + p % 28),
+                new ArrayList<>(List.of(p)),
+                Array.newInstance(other, 2),
+                new int[]{p}
+        };
+    }
+
+    /** Declared parameter types of {@link #parameterMix}, as a method accepting it would declare them. */
+    private static Class<?>[] declaredTypes(Class<?> type, Class<?> other) {
+        return new Class<?>[]{
+                type, String.class, int.class, Object.class, LocalDate.class, List.class, other.arrayType(), int[].class
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        registry.close();
+    }
+
+    @Benchmark
+    public Class<?> resolveRegistered(Cursor cursor) {
+        return paths.resolve(registeredKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public Class<?> resolvePrimitive(Cursor cursor) {
+        return paths.resolve(primitiveKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public Class<?> resolveArray(Cursor cursor) {
+        return paths.resolve(arrayKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public Class<?> resolveClassName(Cursor cursor) {
+        return paths.resolve(classNameKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public Object resolveMissing(Cursor cursor) {
+        try {
+            return paths.resolve(missingKeys[cursor.next()]);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public boolean canResolveRegistered(Cursor cursor) {
+        return paths.canResolve(registeredKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean canResolveMissing(Cursor cursor) {
+        return paths.canResolve(missingKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    public String keyOf(Cursor cursor) {
+        return paths.keyOf(registeredTypes[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<?> wrap(Cursor cursor) {
+        return paths.wrap(params[cursor.next()]);
+    }
+
+    @Benchmark
+    public Object[] unwrap(Cursor cursor) {
+        return paths.unwrap(envelopes[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<?> wrapPlanned(Cursor cursor) {
+        int p = cursor.next();
+        return paths.wrap(wrapPlans[p], params[p]);
+    }
+
+    @Benchmark
+    public Object[] unwrapPlanned(Cursor cursor) {
+        return paths.unwrapPlanned(envelopes[cursor.next()]);
+    }
+
+    /** Same benchmarks on four threads. */
+    @Threads(4)
+    public static class FourThreads extends TypeKeyRegistryBenchmark {
+    }
+
+    /** Same benchmarks on one thread per available processor. */
+    @Threads(Threads.MAX)
+    public static class AllCores extends TypeKeyRegistryBenchmark {
+    }
+}
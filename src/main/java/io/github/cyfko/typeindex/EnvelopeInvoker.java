@@ -0,0 +1,299 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Invokes a named method with the parameters of an envelope list, through a {@link MethodHandle}
+ * selected and adapted once per signature.
+ *
+ * <p>
+ * For each call, the type keys of the envelopes select a cached {@link UnwrapPlan}, whose
+ * {@linkplain UnwrapPlan#methodType() method type} selects the most specific overload applicable
+ * to the resolved types. Its handle is adapted to take the receiver and an argument array and
+ * cached per signature, so steady-state calls neither resolve keys nor reflect.
+ * </p>
+ *
+ * <pre>{@code
+ * EnvelopeInvoker handle = EnvelopeInvoker.of(MethodHandles.lookup(), OrderService.class, "handle");
+ *
+ * // Command bus, on receipt of a command
+ * Object result = handle.invoke(orderService, command.envelopes(), json::convertValue);
+ * }</pre>
+ *
+ * <p>
+ * An overload is applicable when it has one parameter per envelope, each assignable from the
+ * type of its envelope, by primitive widening too, or from its boxed or unboxed type if no
+ * overload is applicable without boxing, as in Java; {@code "null"} envelopes match any
+ * reference type. Variable arity methods take their trailing array as a single argument.
+ * Invokers are thread-safe.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class EnvelopeInvoker {
+
+    /** Maximum number of signatures whose call site is cached per invoker. */
+    private static final int MAX_CACHED_CALL_SITES = 256;
+
+    /** Numeric primitive types, each widening to the following ones. */
+    private static final List<Class<?>> NUMERIC = List.of(
+            byte.class, short.class, int.class, long.class, float.class, double.class);
+
+    /** Type of cached call sites: {@code (receiver, arguments) -> result}. */
+    private static final MethodType CALL_SITE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodHandles.Lookup lookup;
+    private final Class<?> type;
+    private final String name;
+
+    /** Call sites by type keys of the signature. */
+    private final Map<List<String>, MethodHandle> callSites = new ConcurrentHashMap<>();
+
+    private EnvelopeInvoker(MethodHandles.Lookup lookup, Class<?> type, String name) {
+        this.lookup = lookup;
+        this.type = type;
+        this.name = name;
+    }
+
+    /**
+     * Creates an invoker of the methods named {@code name} of {@code type}, accessed with the
+     * given lookup: public methods, including inherited ones, and methods declared by
+     * {@code type} that the lookup can access.
+     *
+     * @param lookup Lookup used to access the methods; must not be {@code null}.
+     * @param type   Class declaring or inheriting the methods; must not be {@code null}.
+     * @param name   Method name; must not be {@code null}.
+     * @return A new invoker.
+     * @throws NullPointerException If any argument is {@code null}.
+     */
+    public static EnvelopeInvoker of(MethodHandles.Lookup lookup, Class<?> type, String name) {
+        Objects.requireNonNull(lookup, "lookup cannot be null");
+        Objects.requireNonNull(type, "type cannot be null");
+        Objects.requireNonNull(name, "name cannot be null");
+        return new EnvelopeInvoker(lookup, type, name);
+    }
+
+    /**
+     * Creates an invoker of the public methods named {@code name} of {@code type}.
+     *
+     * @param type Class declaring or inheriting the methods; must not be {@code null}.
+     * @param name Method name; must not be {@code null}.
+     * @return A new invoker.
+     * @throws NullPointerException If any argument is {@code null}.
+     */
+    public static EnvelopeInvoker of(Class<?> type, String name) {
+        return of(MethodHandles.publicLookup(), type, name);
+    }
+
+    /**
+     * Unwraps the envelopes and invokes the overload selected for their signature.
+     *
+     * @param receiver  Object to invoke an instance method on; ignored for static methods.
+     * @param envelopes Wrapped arguments; must not be {@code null}.
+     * @param mapper    Function that converts a raw value and expected type into an actual typed instance;
+     *                  must not be {@code null}.
+     * @return The result of the method, boxed, or {@code null} for {@code void} methods.
+     * @throws IllegalStateException    If a type key cannot be resolved.
+     * @throws IllegalArgumentException If no overload, or more than one most specific overload, is
+     *                                  applicable to the signature of the envelopes.
+     * @throws ClassCastException       If the receiver is not an instance of the declaring class.
+     * @throws Throwable                Anything thrown by the mapper or the method, unwrapped.
+     */
+    public Object invoke(Object receiver, List<ParamEnvelope> envelopes, BiFunction<Object, Class<?>, Object> mapper)
+            throws Throwable {
+        UnwrapPlan plan = TypeKeyRegistry.unwrapPlanOf(envelopes);
+        MethodHandle callSite = callSite(plan);
+        return callSite.invokeExact(receiver, plan.unwrap(envelopes, mapper));
+    }
+
+    /**
+     * Returns the method invoked for envelopes with the given signature.
+     *
+     * @param plan Signature, as returned by {@link TypeKeyRegistry#unwrapPlanOf(List)}; must not be {@code null}.
+     * @return The most specific applicable method.
+     * @throws IllegalArgumentException If no overload, or more than one most specific overload, is applicable.
+     */
+    public Method methodFor(UnwrapPlan plan) {
+        return select(plan);
+    }
+
+    private MethodHandle callSite(UnwrapPlan plan) {
+        MethodHandle callSite = callSites.get(plan.typeKeys());
+        if (callSite != null) return callSite;
+
+        callSite = adapt(select(plan), plan);
+        if (callSites.size() >= MAX_CACHED_CALL_SITES) {
+            // Drop an arbitrary eighth; the bound is approximate under concurrent inserts.
+            Iterator<List<String>> it = callSites.keySet().iterator();
+            for (int n = MAX_CACHED_CALL_SITES / 8; n > 0 && it.hasNext(); n--) {
+                it.next();
+                it.remove();
+            }
+        }
+        callSites.putIfAbsent(plan.typeKeys(), callSite);
+        return callSite;
+    }
+
+    /** Adapts a method to {@link #CALL_SITE}, casting each argument to the type of its slot. */
+    private MethodHandle adapt(Method method, UnwrapPlan plan) {
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + method, e);
+        }
+        if (handle.isVarargsCollector()) {
+            handle = handle.asFixedArity();
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        MethodType signature = plan.methodType().insertParameterTypes(0, Object.class);
+        return handle.asType(signature)
+                .asSpreader(Object[].class, plan.size())
+                .asType(CALL_SITE);
+    }
+
+    /**
+     * Selects the most specific method applicable to the types of a signature, in two phases as
+     * Java does: methods applicable without boxing or unboxing first, then the others.
+     */
+    private Method select(UnwrapPlan plan) {
+        Set<Method> candidates = candidates();
+        List<Method> applicable = new ArrayList<>();
+        for (boolean boxing : new boolean[]{false, true}) {
+            for (Method method : candidates) {
+                if (isApplicable(method.getParameterTypes(), plan, boxing)) {
+                    applicable.add(method);
+                }
+            }
+            if (!applicable.isEmpty()) break;
+        }
+        if (applicable.isEmpty()) {
+            throw new IllegalArgumentException("No method " + type.getName() + "." + name
+                    + " applicable to " + plan.typeKeys());
+        }
+
+        List<Method> mostSpecific = new ArrayList<>();
+        for (Method method : applicable) {
+            boolean isMostSpecific = true;
+            for (Method other : applicable) {
+                if (other != method && isMoreSpecific(other, method) && !isMoreSpecific(method, other)) {
+                    isMostSpecific = false;
+                    break;
+                }
+            }
+            if (isMostSpecific) {
+                mostSpecific.add(method);
+            }
+        }
+        if (mostSpecific.size() > 1) {
+            throw new IllegalArgumentException("Ambiguous methods " + mostSpecific + " for " + plan.typeKeys());
+        }
+        return mostSpecific.get(0);
+    }
+
+    /** Public methods, then accessible methods declared by the type, without bridges. */
+    private Set<Method> candidates() {
+        Set<Method> candidates = new LinkedHashSet<>();
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && !method.isBridge()) {
+                candidates.add(method);
+            }
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().equals(name) && !method.isBridge() && !candidates.contains(method)
+                    && isAccessible(method)) {
+                candidates.add(method);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean isAccessible(Method method) {
+        try {
+            lookup.unreflect(method);
+            return true;
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+    }
+
+    private static boolean isApplicable(Class<?>[] parameterTypes, UnwrapPlan plan, boolean boxing) {
+        if (parameterTypes.length != plan.size()) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> argument = plan.type(i);
+            Class<?> parameter = parameterTypes[i];
+            boolean accepts = argument == null
+                    ? !parameter.isPrimitive()
+                    : parameter.isAssignableFrom(argument) || widens(argument, parameter)
+                        || boxing && (wrap(parameter) == wrap(argument) || parameter.isAssignableFrom(wrap(argument))
+                                      || widens(unwrap(argument), parameter));
+            if (!accepts) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether every parameter of {@code a} is a subtype of, or the same as, that of {@code b},
+     * primitive types being subtypes of the types they widen to.
+     */
+    private static boolean isMoreSpecific(Method a, Method b) {
+        Class<?>[] as = a.getParameterTypes();
+        Class<?>[] bs = b.getParameterTypes();
+        for (int i = 0; i < as.length; i++) {
+            if (!bs[i].isAssignableFrom(as[i]) && !widens(as[i], bs[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether a widening primitive conversion (JLS 5.1.2) turns {@code from} into {@code to},
+     * as {@link MethodHandle#asType(MethodType)} does when adapting the call site.
+     */
+    private static boolean widens(Class<?> from, Class<?> to) {
+        if (from == char.class) {
+            return to == int.class || to == long.class || to == float.class || to == double.class;
+        }
+        int rank = NUMERIC.indexOf(from);
+        return rank >= 0 && NUMERIC.indexOf(to) > rank;
+    }
+
+    /** @return The wrapper class of a primitive type, or {@code type} itself. */
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    /** @return The primitive type of a wrapper class, or {@code type} itself. */
+    private static Class<?> unwrap(Class<?> type) {
+        return MethodType.methodType(type).unwrap().returnType();
+    }
+
+    @Override
+    public String toString() {
+        return "EnvelopeInvoker[" + type.getName() + "." + name + "]";
+    }
+}
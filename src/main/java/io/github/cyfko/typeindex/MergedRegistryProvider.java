@@ -0,0 +1,204 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.providers.KeyIndex;
+import io.github.cyfko.typeindex.providers.RegistryProvider;
+import io.github.cyfko.typeindex.providers.SubtypeIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single view over the providers generated for several modules.
+ * <p>
+ * Merging indexes every key with the provider that registered it, so that a lookup costs one
+ * hash lookup plus the owning provider's own {@code lookup(String)}, however many modules there
+ * are. Only keys are read while merging: classes of providers generated with lazy class loading
+ * stay unloaded.
+ * </p>
+ *
+ * <p>
+ * A key registered by two providers is a conflict and fails the merge, like duplicate keys fail
+ * compilation within a module. The same key registered twice for the same class, as happens when
+ * a module is present twice on the class path, is tolerated. Aliases are checked like keys and
+ * indexed in the same map. Type IDs are merged the same way, and subtype and key indexes on
+ * first use.
+ * </p>
+ */
+final class MergedRegistryProvider implements RegistryProvider {
+
+    private final List<RegistryProvider> providers;
+    /** Providers by key and by alias. */
+    private final Map<String, RegistryProvider> owners;
+    private final Set<String> keys;
+    private final Map<String, Integer> typeIds;
+    private final Map<String, String> aliases;
+    private volatile Map<String, Class<?>> registry;
+    private volatile SubtypeIndex subtypeIndex;
+    private volatile KeyIndex keyIndex;
+
+    private MergedRegistryProvider(List<RegistryProvider> providers, Map<String, RegistryProvider> owners,
+                                   Set<String> keys, Map<String, Integer> typeIds, Map<String, String> aliases) {
+        this.providers = providers;
+        this.owners = owners;
+        this.keys = keys;
+        this.typeIds = typeIds;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Merges the given providers.
+     *
+     * @param providers Providers to merge; must not be {@code null}.
+     * @return The merged provider; {@code providers.get(0)} itself if it is the only one.
+     * @throws IllegalStateException If a key or alias is registered for different classes by two
+     *                               providers, or a type ID for different keys.
+     */
+    static RegistryProvider merge(List<RegistryProvider> providers) {
+        if (providers.size() == 1) {
+            return providers.get(0);
+        }
+
+        int size = 0;
+        Map<String, String> aliases = new HashMap<>();
+        for (RegistryProvider provider : providers) {
+            size += provider.keys().size() + provider.getAliases().size();
+            aliases.putAll(provider.getAliases());
+        }
+
+        // Aliases share the owner map with keys, so that they resolve in the same single lookup
+        Map<String, RegistryProvider> owners = new HashMap<>(size * 4 / 3 + 1);
+        List<String> conflicts = new ArrayList<>();
+        for (RegistryProvider provider : providers) {
+            for (String key : provider.keys()) {
+                addOwner(owners, key, provider, conflicts);
+            }
+            for (String alias : provider.getAliases().keySet()) {
+                addOwner(owners, alias, provider, conflicts);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("Conflicting @TypeKey values across modules: " + String.join(", ", conflicts));
+        }
+
+        Set<String> keys = owners.keySet();
+        if (!aliases.isEmpty()) {
+            // A string may be a key of one module and an alias of another: it stays a key
+            keys = new HashSet<>(size * 4 / 3 + 1);
+            for (RegistryProvider provider : providers) {
+                keys.addAll(provider.keys());
+            }
+            aliases.keySet().removeAll(keys);
+        }
+        return new MergedRegistryProvider(List.copyOf(providers), owners, Collections.unmodifiableSet(keys),
+                mergeTypeIds(providers), Map.copyOf(aliases));
+    }
+
+    /** Records the provider of a key or alias, reporting a conflict if another one resolves it differently. */
+    private static void addOwner(Map<String, RegistryProvider> owners, String key, RegistryProvider provider,
+                                 List<String> conflicts) {
+        RegistryProvider owner = owners.putIfAbsent(key, provider);
+        if (owner != null && owner.lookup(key) != provider.lookup(key)) {
+            conflicts.add("'" + key + "' (" + owner.getClass().getName() + " → " + owner.lookup(key).getName()
+                    + ", " + provider.getClass().getName() + " → " + provider.lookup(key).getName() + ")");
+        }
+    }
+
+    /** Merges the type IDs of every provider, failing on an ID declared for different keys. */
+    private static Map<String, Integer> mergeTypeIds(List<RegistryProvider> providers) {
+        Map<String, Integer> typeIds = new HashMap<>();
+        Map<Integer, String> keysById = new HashMap<>();
+        List<String> conflicts = new ArrayList<>();
+        for (RegistryProvider provider : providers) {
+            for (Map.Entry<String, Integer> entry : provider.getTypeIds().entrySet()) {
+                String owner = keysById.putIfAbsent(entry.getValue(), entry.getKey());
+                if (owner != null && !owner.equals(entry.getKey())) {
+                    conflicts.add(entry.getValue() + " ('" + owner + "', '" + entry.getKey() + "')");
+                }
+                typeIds.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("Conflicting @TypeKey ids across modules: " + String.join(", ", conflicts));
+        }
+        return Map.copyOf(typeIds);
+    }
+
+    @Override
+    public Class<?> lookup(String key) {
+        RegistryProvider owner = owners.get(key);
+        return owner == null ? null : owner.lookup(key);
+    }
+
+    @Override
+    public String keyOf(Class<?> type) {
+        for (RegistryProvider provider : providers) {
+            String key = provider.keyOf(type);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, Integer> getTypeIds() {
+        return typeIds;
+    }
+
+    @Override
+    public Collection<String> keys() {
+        return keys;
+    }
+
+    @Override
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+
+    @Override
+    public SubtypeIndex getSubtypeIndex() {
+        SubtypeIndex index = subtypeIndex;
+        if (index == null) {
+            List<SubtypeIndex> indexes = new ArrayList<>(providers.size());
+            for (RegistryProvider provider : providers) {
+                indexes.add(provider.getSubtypeIndex());
+            }
+            subtypeIndex = index = SubtypeIndex.merge(indexes);
+        }
+        return index;
+    }
+
+    @Override
+    public KeyIndex getKeyIndex() {
+        KeyIndex index = keyIndex;
+        if (index == null) {
+            List<KeyIndex> indexes = new ArrayList<>(providers.size());
+            for (RegistryProvider provider : providers) {
+                indexes.add(provider.getKeyIndex());
+            }
+            keyIndex = index = KeyIndex.merge(indexes);
+        }
+        return index;
+    }
+
+    /** Builds the merged map on first call, loading the classes of every provider. */
+    @Override
+    public Map<String, Class<?>> getRegistry() {
+        Map<String, Class<?>> map = registry;
+        if (map == null) {
+            Map<String, Class<?>> merged = new LinkedHashMap<>(owners.size() * 4 / 3 + 1);
+            for (RegistryProvider provider : providers) {
+                merged.putAll(provider.getRegistry());
+            }
+            registry = map = Collections.unmodifiableMap(merged);
+        }
+        return map;
+    }
+}
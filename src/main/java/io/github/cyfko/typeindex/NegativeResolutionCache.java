@@ -0,0 +1,105 @@
+package io.github.cyfko.typeindex;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, concurrent cache of keys that the classpath tier failed to load.
+ * <p>
+ * Remembering a miss lets repeated lookups of a stale key cost one hash lookup instead of a
+ * class loader walk plus a {@link ClassNotFoundException}. Entries expire after a fixed TTL so
+ * that classes appearing later on the classpath are eventually picked up; explicit invalidation
+ * is available for plugins loaded dynamically.
+ * </p>
+ *
+ * <p>
+ * When the cache is full, expired entries are purged first; if that is not enough, an arbitrary
+ * eighth of the entries is dropped. The bound is therefore approximate under concurrent inserts,
+ * but memory stays proportional to {@code maxSize}.
+ * </p>
+ */
+final class NegativeResolutionCache {
+
+    /** System property holding the maximum number of cached misses; {@code 0} disables the cache. */
+    static final String MAX_SIZE_PROPERTY = "typeindex.negativeCache.maxSize";
+
+    /** System property holding the time-to-live of a cached miss, in milliseconds. */
+    static final String TTL_PROPERTY = "typeindex.negativeCache.ttlMillis";
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    /** Key → expiry deadline, in {@link System#nanoTime()} units. */
+    private final ConcurrentHashMap<String, Long> misses = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    NegativeResolutionCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+    }
+
+    /** Creates a cache configured from system properties, falling back to defaults. */
+    static NegativeResolutionCache fromSystemProperties() {
+        return new NegativeResolutionCache(
+                Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+                Long.getLong(TTL_PROPERTY, DEFAULT_TTL_MILLIS)
+        );
+    }
+
+    /**
+     * Tells whether a miss is currently cached for the given key.
+     *
+     * @param key Key that failed to load; must not be {@code null}.
+     * @return {@code true} if a non-expired miss is cached.
+     */
+    boolean contains(String key) {
+        Long deadline = misses.get(key);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        misses.remove(key, deadline);
+        return false;
+    }
+
+    /**
+     * Records a miss for the given key.
+     *
+     * @param key Key that failed to load; must not be {@code null}.
+     */
+    void add(String key) {
+        if (maxSize == 0 || ttlNanos == 0) {
+            return;
+        }
+        if (misses.size() >= maxSize) {
+            evict();
+        }
+        misses.put(key, System.nanoTime() + ttlNanos);
+    }
+
+    /** Forgets the cached miss for the given key, if any. */
+    void invalidate(String key) {
+        misses.remove(key);
+    }
+
+    /** Forgets all cached misses. */
+    void invalidateAll() {
+        misses.clear();
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        misses.values().removeIf(deadline -> deadline - now <= 0);
+
+        int target = maxSize - Math.max(1, maxSize / 8);
+        Iterator<String> it = misses.keySet().iterator();
+        while (misses.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
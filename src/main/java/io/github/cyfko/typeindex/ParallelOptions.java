@@ -0,0 +1,106 @@
+package io.github.cyfko.typeindex;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options controlling the parallel {@link TypeKeyRegistry#wrap(Object[], ParallelOptions)} and
+ * {@link TypeKeyRegistry#unwrap(java.util.List, java.util.function.BiFunction, ParallelOptions)}.
+ *
+ * <p>
+ * Parameters are split into chunks of {@link #chunkSize()} consecutive parameters, each chunk
+ * running as one task on {@link #executor()}; results keep the order of the input. Inputs of
+ * fewer than {@link #threshold()} parameters are processed sequentially on the calling thread,
+ * where handing work to other threads would cost more than it saves.
+ * </p>
+ *
+ * <pre>{@code
+ * // CPU-bound mapper: the common fork-join pool, a few chunks per core
+ * Object[] params = TypeKeyRegistry.unwrap(envelopes, mapper, ParallelOptions.defaults());
+ *
+ * // Blocking mapper (fetching referenced entities): one virtual thread per parameter
+ * Object[] params = TypeKeyRegistry.unwrap(envelopes, mapper, ParallelOptions.defaults().withVirtualThreads());
+ * }</pre>
+ *
+ * @param executor  Executor running one task per chunk; never {@code null}.
+ * @param threshold Minimum number of parameters processed in parallel; at least {@code 1}.
+ * @param chunkSize Number of parameters per task, or {@code 0} to split the input into about four
+ *                  chunks per available processor.
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public record ParallelOptions(Executor executor, int threshold, int chunkSize) {
+
+    /**
+     * Default {@link #threshold()}. Below it, even mappers costing a few microseconds per value
+     * do not amortize the hand-off to other threads; see {@code ParallelUnwrapBenchmark}.
+     */
+    public static final int DEFAULT_THRESHOLD = 64;
+
+    public ParallelOptions {
+        Objects.requireNonNull(executor, "executor cannot be null");
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be at least 1: " + threshold);
+        }
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize cannot be negative: " + chunkSize);
+        }
+    }
+
+    /**
+     * Returns options suited to CPU-bound mappers: tasks run on the
+     * {@linkplain ForkJoinPool#commonPool() common fork-join pool}, about four per available
+     * processor, above {@link #DEFAULT_THRESHOLD} parameters.
+     *
+     * @return Default parallel options.
+     */
+    public static ParallelOptions defaults() {
+        return new ParallelOptions(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD, 0);
+    }
+
+    /**
+     * @param executor Executor running the tasks; must not be {@code null}.
+     * @return A copy of these options with the given executor.
+     */
+    public ParallelOptions withExecutor(Executor executor) {
+        return new ParallelOptions(executor, threshold, chunkSize);
+    }
+
+    /**
+     * @param threshold Minimum number of parameters processed in parallel; at least {@code 1}.
+     * @return A copy of these options with the given threshold.
+     */
+    public ParallelOptions withThreshold(int threshold) {
+        return new ParallelOptions(executor, threshold, chunkSize);
+    }
+
+    /**
+     * @param chunkSize Number of parameters per task, or {@code 0} for about four chunks per
+     *                  available processor.
+     * @return A copy of these options with the given chunk size.
+     */
+    public ParallelOptions withChunkSize(int chunkSize) {
+        return new ParallelOptions(executor, threshold, chunkSize);
+    }
+
+    /**
+     * Maps each parameter on its own virtual thread. Suited to mappers that block on I/O, such as
+     * mappers fetching referenced entities, whose number of concurrent calls is then only bounded
+     * by the input size.
+     *
+     * @return A copy of these options using one virtual thread per parameter.
+     */
+    public ParallelOptions withVirtualThreads() {
+        return new ParallelOptions(task -> Thread.ofVirtual().name("typeindex-unwrap").start(task), threshold, 1);
+    }
+
+    /** @return The number of parameters per task for an input of {@code size} parameters. */
+    int chunkSizeFor(int size) {
+        if (chunkSize > 0) {
+            return chunkSize;
+        }
+        int chunks = 4 * Runtime.getRuntime().availableProcessors();
+        return Math.max(1, (size + chunks - 1) / chunks);
+    }
+}
@@ -37,12 +37,18 @@ import java.lang.annotation.Target;
  *       alphanumeric characters and {@code '.'}, {@code '-'}, {@code '#'}, {@code '_' }.</li>
  *   <li>Keys must be globally unique; any duplicate key will cause compilation to fail,
  *       with diagnostics pointing to both conflicting declarations.</li>
+ *   <li>{@linkplain #id() Type IDs}, when given, must be between {@code 0} and {@link #MAX_ID}
+ *       and globally unique, with the same diagnostics as keys.</li>
+ *   <li>{@linkplain #aliases() Aliases} follow the same rules as keys, and must be unique
+ *       across all keys and aliases.</li>
  * </ul>
  *
  * <h3>Retention and Processing</h3>
  * <ul>
- *   <li>The retention policy is {@link RetentionPolicy#SOURCE}, which means the
- *       annotation is available only during compilation.</li>
+ *   <li>The retention policy is {@link RetentionPolicy#CLASS}: the annotation is
+ *       recorded in class files so that incremental builds (e.g. Gradle) can
+ *       hand unchanged, already compiled types back to the processor, but it is
+ *       not loaded at runtime.</li>
  *   <li>The runtime registry is populated exclusively through generated code
  *       (e.g. {@code RegistryProviderImpl}); {@code @TypeKey} is not visible
  *       via reflection at runtime.</li>
@@ -83,9 +89,15 @@ import java.lang.annotation.Target;
  * @since 1.0.0
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface TypeKey {
 
+    /** Value of {@link #id()} for types without a type ID. */
+    int NO_ID = -1;
+
+    /** Largest allowed {@link #id()}; IDs index dense arrays at runtime, so they should stay compact. */
+    int MAX_ID = (1 << 20) - 1;
+
     /**
      * Stable business identifier associated with the annotated class.
      * <p>
@@ -97,5 +109,33 @@ public @interface TypeKey {
      * @return the stable logical key for this type
      */
     String value();
+
+    /**
+     * Stable, compact integer identifier of the annotated class, as an alternative to its key
+     * where a string is too costly to store or transmit.
+     * <p>
+     * IDs are resolved with {@code TypeKeyRegistry.resolveById(int)} and obtained with
+     * {@code TypeKeyRegistry.idOf(Class)}, both array lookups. Like keys, they must never change
+     * once used in production; assign them densely, starting from {@code 0}.
+     * </p>
+     *
+     * @return the type ID, or {@link #NO_ID} if the type has none
+     * @since 1.1.0
+     */
+    int id() default NO_ID;
+
+    /**
+     * Former keys of the annotated class, still accepted when resolving.
+     * <p>
+     * When a key has to be renamed, keep the old one here so that data persisted with it still
+     * resolves. Aliases share the generated lookup structure with keys, so resolving one costs
+     * the same single lookup; {@code TypeKeyRegistry.keyOf(Class)} always returns
+     * {@link #value()}.
+     * </p>
+     *
+     * @return the aliases of this type, none by default
+     * @since 1.1.0
+     */
+    String[] aliases() default {};
 }
 
@@ -1,17 +1,36 @@
 package io.github.cyfko.typeindex;
 
+import io.github.cyfko.typeindex.model.EnvelopeBatch;
 import io.github.cyfko.typeindex.model.ParamEnvelope;
+import io.github.cyfko.typeindex.providers.KeyIndex;
 import io.github.cyfko.typeindex.providers.RegistryProvider;
+import io.github.cyfko.typeindex.providers.SubtypeIndex;
 
-import java.lang.reflect.Array;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Global static registry for resolving Java types by a stable logical key.
@@ -37,17 +56,31 @@ import java.util.stream.Collectors;
  *     Class<?> type = TypeKeyRegistry.resolve("user-dto");
  * }
  *
+ * // Without exceptions for unknown keys
+ * Optional<Class<?>> maybeType = TypeKeyRegistry.tryResolve("user-dto");
+ *
  * // With type assertion
  * Class<UserDto> userType = TypeKeyRegistry.resolve("user-dto", UserDto.class);
  *
  * // Reverse lookup from class to key
  * String key = TypeKeyRegistry.keyOf(UserDto.class);
+ *
+ * // Compact type IDs, for types declared with @TypeKey(value = "user-dto", id = 7)
+ * int id = TypeKeyRegistry.idOf(UserDto.class);
+ * Class<?> sameType = TypeKeyRegistry.resolveById(id);
  * }</pre>
  *
  * <h2>Lifecycle</h2>
  * <p>
- * The provider and reverse map are initialized lazily on first access using double-checked locking.
- * The reverse map enables fast class → key lookup (for serialization and persistence).
+ * The provider is initialized lazily on first access through a holder class, relying on the
+ * JVM's class initialization guarantees. Once initialized, the provider is a {@code static final}
+ * constant the JIT can inline through. Both the forward and the reverse (class → key, for
+ * serialization and persistence) tables are generated at compile time; no map is built at startup.
+ * </p>
+ *
+ * <p>
+ * Applications that want the first requests after a deploy to be fast can call
+ * {@link #warmUp(WarmUpOptions)} during startup, for instance before reporting readiness.
  * </p>
  *
  * <h2>Resolution Strategy</h2>
@@ -56,7 +89,8 @@ import java.util.stream.Collectors;
  * </p>
  * <ol>
  *   <li><b>Generated registry</b>: keys of {@code @TypeKey}-annotated application types.</li>
- *   <li><b>Arrays</b>: suffix {@code "[]"} resolved recursively via the component key.</li>
+ *   <li><b>Arrays</b>: suffix {@code "[]"} resolved via the component key, or JVM descriptors
+ *       such as {@code "[Ljava.lang.String;"} and {@code "[[I"}.</li>
  *   <li><b>Java primitives</b>: string names of primitive types, e.g. {@code "int"} → {@code int.class}.</li>
  *   <li><b>Classpath class</b>: best‑effort {@link Class#forName(String)} for FQCNs.</li>
  * </ol>
@@ -84,24 +118,87 @@ public final class TypeKeyRegistry {
 
     private static final Logger log = Logger.getLogger(TypeKeyRegistry.class.getName());
 
+    /** Provider class generated when no {@code -Atypeindex.provider} name is given. */
+    private static final String LEGACY_PROVIDER = "io.github.cyfko.typeindex.providers.RegistryProviderImpl";
+
     /**
-     * Singleton provider instance generated at compile time.
+     * Lazy holder of the provider generated at compile time.
      * <p>
-     * This provider is discovered and instantiated reflectively from the
-     * generated {@code RegistryProviderImpl} class.
+     * Initialized by the JVM on first access, under the class initialization lock. Because
+     * the field is {@code static final}, the JIT treats the provider as a constant and can
+     * inline its {@code lookup(String)} at hot call sites.
+     * </p>
+     *
+     * <p>
+     * A class is initialized once, so a failure to load the provider is permanent: it is kept
+     * in {@link #FAILURE} and reported by every later {@link #getRegistryProvider()} call.
      * </p>
      */
-    private static volatile RegistryProvider PROVIDER;
+    private static final class ProviderHolder {
+
+        /**
+         * Singleton provider instance generated at compile time, or {@code null} if it failed to load.
+         * <p>
+         * This provider is discovered through {@link ServiceLoader}, merging the providers of
+         * all modules if there are several. It carries both the forward (key → class) and the
+         * reverse (class → key) tables, generated at compile time.
+         * </p>
+         */
+        static final RegistryProvider PROVIDER;
+
+        /** Cause of the failure to load {@link #PROVIDER}, or {@code null} if it loaded. */
+        static final Throwable FAILURE;
+
+        static {
+            RegistryProvider provider = null;
+            Throwable failure = null;
+            try {
+                provider = loadProvider();
+            } catch (RuntimeException | LinkageError e) {
+                failure = e;
+            }
+            PROVIDER = provider;
+            FAILURE = failure;
+        }
+    }
 
     /**
-     * Reverse mapping of registry entries: Java class → logical type key.
-     * <p>
-     * This map is initialized lazily when the provider is first loaded and
-     * allows looking up the {@link TypeKey} value associated with a given
-     * annotated class.
-     * </p>
+     * Lazy holder of the type ID tables, indexed by ID, built from the provider's
+     * {@link RegistryProvider#getTypeIds()} on the first ID lookup.
      */
-    private static volatile Map<? extends Class<?>, String> REVERTED_REGISTRY;
+    private static final class TypeIdHolder {
+
+        static final String[] KEYS_BY_ID;
+
+        /**
+         * Classes resolved so far, by ID. Filled on first resolution of each ID rather than up
+         * front, so that lazily loaded classes stay unloaded; racy writes are benign, every
+         * thread storing the same {@link Class}.
+         */
+        static final Class<?>[] TYPES_BY_ID;
+
+        static {
+            Map<String, Integer> typeIds = getRegistryProvider().getTypeIds();
+            int bound = 0;
+            for (int id : typeIds.values()) {
+                bound = Math.max(bound, id + 1);
+            }
+            KEYS_BY_ID = new String[bound];
+            for (Map.Entry<String, Integer> entry : typeIds.entrySet()) {
+                KEYS_BY_ID[entry.getValue()] = entry.getKey();
+            }
+            TYPES_BY_ID = new Class<?>[bound];
+        }
+    }
+
+    /**
+     * Lazy holder of the provider's {@link RegistryProvider#getKeyIndex() key index}, built on
+     * the first prefix, package or kind query.
+     */
+    private static final class KeyIndexHolder {
+
+        static final KeyIndex INDEX = getRegistryProvider().getKeyIndex();
+    }
 
     private static final Map<String, Class<?>> PRIMITIVES = Map.of(
             "int", int.class,
@@ -114,6 +211,99 @@ public final class TypeKeyRegistry {
             "char", char.class
     );
 
+    /**
+     * Memoized reverse lookup: each class's key is computed once, on first request.
+     * <p>
+     * Covers registered, primitive, array and fallback (FQCN) classes alike, so that
+     * steady-state {@link #keyOf(Class)} neither allocates nor probes the reverse registry.
+     * </p>
+     */
+    private static final ClassValue<String> KEYS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return computeKey(type);
+        }
+    };
+
+    /**
+     * Memoized {@link Class#arrayType()}, which otherwise allocates a throwaway array on every call.
+     */
+    private static final ClassValue<Class<?>> ARRAY_TYPE = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            return type.arrayType();
+        }
+    };
+
+    /**
+     * Resolved array keys; bounded since keys come from external input. Only arrays of classes
+     * defined by the loader of this class or one of its parents are kept, so that the cache never
+     * holds on to a class loader that could otherwise be unloaded (see {@link #outlivesRegistry(Class)}).
+     */
+    private static final Map<String, Class<?>> ARRAY_TYPES = new ConcurrentHashMap<>();
+
+    private static final int MAX_CACHED_ARRAY_KEYS = 4096;
+
+    /** Memoized type IDs, {@link TypeKey#NO_ID} for classes without one. */
+    private static final ClassValue<Integer> IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return getRegistryProvider().getTypeIds().getOrDefault(KEYS.get(type), TypeKey.NO_ID);
+        }
+    };
+
+    /**
+     * Memoized registered subtypes, answered from the provider's {@link SubtypeIndex}, so that
+     * only the classes listed are loaded, and only once per queried type.
+     */
+    private static final ClassValue<List<Class<?>>> SUBTYPES = new ClassValue<>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> baseType) {
+            RegistryProvider provider = getRegistryProvider();
+            Collection<String> keys = baseType == Object.class
+                    ? provider.keys() // not indexed: every registered type
+                    : provider.getSubtypeIndex().subtypeKeys(baseType.getName());
+
+            List<Class<?>> subtypes = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                Class<?> type = provider.lookup(key);
+                // Also rules out a class of the same name defined by another class loader
+                if (type != null && baseType.isAssignableFrom(type)) {
+                    subtypes.add(type);
+                }
+            }
+            return List.copyOf(subtypes);
+        }
+    };
+
+    /** Memoized registered types of each registered package; packages without any are not cached. */
+    private static final Map<String, List<Class<?>>> TYPES_BY_PACKAGE = new ConcurrentHashMap<>();
+
+    /** Memoized registered types of each kind. */
+    private static final Map<TypeKind, List<Class<?>>> TYPES_BY_KIND = new ConcurrentHashMap<>();
+
+    /** Type key of {@code null} parameters in wrapped envelopes. */
+    static final String NULL_KEY = "null";
+
+    /** System property holding the maximum number of cached {@link UnwrapPlan}s; {@code 0} disables caching. */
+    static final String PLAN_CACHE_SIZE_PROPERTY = "typeindex.planCache.maxSize";
+
+    private static final int MAX_CACHED_PLANS = Math.max(0, Integer.getInteger(PLAN_CACHE_SIZE_PROPERTY, 1024));
+
+    /** Unwrap plans by key tuple; bounded since signatures come from external input. */
+    private static final Map<Signature, UnwrapPlan> UNWRAP_PLANS = new ConcurrentHashMap<>();
+
+    /** System property enabling the count of resolutions through an alias (see {@link #aliasHits()}). */
+    static final String ALIAS_STATS_PROPERTY = "typeindex.aliasStats";
+
+    private static final boolean COUNT_ALIAS_HITS = Boolean.getBoolean(ALIAS_STATS_PROPERTY);
+
+    /** Resolutions by alias; bounded by the number of declared aliases. */
+    private static final Map<String, LongAdder> ALIAS_HITS = new ConcurrentHashMap<>();
+
+    /** Keys the classpath tier recently failed to load. */
+    private static final NegativeResolutionCache NEGATIVE_CACHE = NegativeResolutionCache.fromSystemProperties();
+
     private TypeKeyRegistry() {
         // Utility class; not instantiable.
     }
@@ -124,48 +314,72 @@ public final class TypeKeyRegistry {
      * On first invocation, this method:
      * </p>
      * <ol>
-     *   <li>Loads {@code RegistryProviderImpl} reflectively.</li>
-     *   <li>Initializes the forward registry (key → class).</li>
-     *   <li>Builds the reverse registry (class → key) as a defensive copy.</li>
+     *   <li>Discovers the generated providers of all modules through {@link ServiceLoader}.</li>
+     *   <li>Initializes their generated forward (key → class) and reverse (class → key) tables.</li>
+     *   <li>Merges them into one lookup structure if there are several.</li>
      * </ol>
      *
+     * <p>
+     * Initialization is not retried: if it fails, this call and every later one throw an
+     * {@link IllegalStateException} caused by the original failure.
+     * </p>
+     *
      * @return The metadata provider exposing the generated registry.
-     * @throws IllegalStateException If the generated class cannot be instantiated.
+     * @throws IllegalStateException If a generated class cannot be instantiated, or if two
+     *                               modules register the same key for different classes.
      */
     public static RegistryProvider getRegistryProvider() {
-        if (PROVIDER == null) {
-            synchronized (TypeKeyRegistry.class) {
-                if (PROVIDER == null) {
-                    PROVIDER = loadProvider();
-
-                    // Build the inverse lookup map (class -> key) once the provider is available.
-                    REVERTED_REGISTRY = PROVIDER.getRegistry()
-                            .entrySet()
-                            .stream()
-                            .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
-                }
-            }
+        RegistryProvider provider = ProviderHolder.PROVIDER;
+        if (provider == null) {
+            throw new IllegalStateException("Failed to initialize the type registry", ProviderHolder.FAILURE);
         }
-        return PROVIDER;
+        return provider;
     }
 
     /**
-     * Loads the auto-generated {@code RegistryProviderImpl} using reflection.
+     * Loads the providers generated for each module and merges them.
+     * <p>
+     * Providers are listed in {@code META-INF/services} by the annotation processor. Modules
+     * compiled before providers were registered as services are still found through the
+     * legacy {@code RegistryProviderImpl} class name.
+     * </p>
+     *
      * <p>
-     * If the generated class cannot be found (for example, because annotation
-     * processing was disabled), an error is logged and a no-op provider is
-     * returned, exposing an empty registry. This allows the application to
-     * start, while still surfacing clear diagnostics.
+     * If no provider can be found (for example, because annotation processing was disabled),
+     * an error is logged and a no-op provider is returned, exposing an empty registry. This
+     * allows the application to start, while still surfacing clear diagnostics.
      * </p>
      *
-     * @return A {@link RegistryProvider} backed by the generated registry,
-     *         or an empty provider if the generated class is missing.
+     * @return A {@link RegistryProvider} backed by the generated registries,
+     *         or an empty provider if none is found.
      */
     private static RegistryProvider loadProvider() {
+        ClassLoader loader = TypeKeyRegistry.class.getClassLoader();
+        List<RegistryProvider> providers = new ArrayList<>();
         try {
-            Class<?> cls = Class.forName(
-                    "io.github.cyfko.typeindex.providers.RegistryProviderImpl"
-            );
+            for (RegistryProvider provider : ServiceLoader.load(RegistryProvider.class, loader)) {
+                providers.add(provider);
+            }
+        } catch (ServiceConfigurationError e) {
+            throw new IllegalStateException("Failed to instantiate a generated registry provider", e);
+        }
+
+        if (providers.isEmpty()) {
+            RegistryProvider legacy = loadLegacyProvider();
+            if (legacy == null) {
+                return Map::of;
+            }
+            providers.add(legacy);
+        }
+
+        warnOnShadowedLegacyProvider(loader);
+        return MergedRegistryProvider.merge(providers);
+    }
+
+    /** Loads the provider of a module compiled without service registration, or returns {@code null}. */
+    private static RegistryProvider loadLegacyProvider() {
+        try {
+            Class<?> cls = Class.forName(LEGACY_PROVIDER);
             return (RegistryProvider) cls.getConstructor().newInstance();
 
         } catch (ClassNotFoundException e) {
@@ -176,7 +390,7 @@ public final class TypeKeyRegistry {
                 system is configured for annotation processing.
                 """ + e);
             // Fallback to an empty registry to avoid hard failure at startup.
-            return Map::of;
+            return null;
 
         } catch (InvocationTargetException | InstantiationException |
                  NoSuchMethodException | IllegalAccessException e) {
@@ -184,13 +398,122 @@ public final class TypeKeyRegistry {
         }
     }
 
+    /**
+     * Warns when several modules generated the default provider class: only one of them is
+     * visible, and the keys of the others are silently missing.
+     */
+    private static void warnOnShadowedLegacyProvider(ClassLoader loader) {
+        try {
+            List<URL> copies = Collections.list(loader.getResources(LEGACY_PROVIDER.replace('.', '/') + ".class"));
+            if (copies.size() > 1) {
+                log.warning("Several modules define " + LEGACY_PROVIDER + " and only one is used: " + copies
+                        + ". Compile each module with a distinct -Atypeindex.provider=<class name>.");
+            }
+        } catch (IOException e) {
+            log.fine("Cannot check for duplicate registry providers: " + e);
+        }
+    }
+
+    /**
+     * Initializes the registry eagerly, without preloading registered classes.
+     *
+     * @return Timings of each warm-up phase.
+     * @see #warmUp(WarmUpOptions)
+     */
+    public static WarmUpReport warmUp() {
+        return warmUp(WarmUpOptions.defaults());
+    }
+
+    /**
+     * Initializes the registry eagerly so that the first lookups after startup do not pay for it.
+     *
+     * <p>Warm-up proceeds in phases, each timed in the returned report:</p>
+     * <ol>
+     *   <li><b>Provider</b>: loads and initializes the generated provider.</li>
+     *   <li><b>Class preloading</b> (optional): loads, links or initializes every registered class,
+     *       one task per key on {@link WarmUpOptions#executor()}, and waits for all of them.</li>
+     *   <li><b>Key indexing</b>: memoizes the key of every registered class, as {@link #keyOf(Class)}
+     *       would on first use.</li>
+     * </ol>
+     *
+     * <p>
+     * Preloading runs before key indexing so that, with a provider generated with
+     * {@code -Atypeindex.classLoading=lazy}, classes are loaded in parallel rather than one by one
+     * while indexing.
+     * </p>
+     *
+     * <p>
+     * A class failing to load, link or initialize does not abort warm-up; it is listed in
+     * {@link WarmUpReport#failures()}. This makes the method suitable for readiness probes.
+     * </p>
+     *
+     * @param options Warm-up options; must not be {@code null}.
+     * @return Timings of each warm-up phase.
+     * @throws NullPointerException  If {@code options} is {@code null}.
+     * @throws IllegalStateException If the generated provider cannot be instantiated.
+     */
+    public static WarmUpReport warmUp(WarmUpOptions options) {
+        Objects.requireNonNull(options, "options cannot be null");
+
+        long start = System.nanoTime();
+        RegistryProvider provider = getRegistryProvider();
+        Collection<String> keys = provider.keys();
+
+        long providerDone = System.nanoTime();
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        if (options.preloading() != WarmUpOptions.ClassPreloading.NONE) {
+            CompletableFuture.allOf(keys.stream()
+                    .map(key -> CompletableFuture.runAsync(
+                            () -> preload(provider, key, options.preloading(), failures), options.executor()))
+                    .toArray(CompletableFuture[]::new)
+            ).join();
+        }
+
+        long preloadDone = System.nanoTime();
+        for (String key : keys) {
+            if (!failures.containsKey(key)) {
+                try {
+                    KEYS.get(provider.lookup(key));
+                } catch (IllegalStateException | LinkageError e) {
+                    failures.put(key, e);
+                }
+            }
+        }
+
+        long keysDone = System.nanoTime();
+        return new WarmUpReport(
+                Duration.ofNanos(providerDone - start),
+                Duration.ofNanos(keysDone - preloadDone),
+                Duration.ofNanos(preloadDone - providerDone),
+                keys.size(),
+                failures
+        );
+    }
+
+    /** Brings the class registered under a key to the given preloading level, recording any failure. */
+    private static void preload(RegistryProvider provider, String key, WarmUpOptions.ClassPreloading level,
+                                Map<String, Throwable> failures) {
+        try {
+            // Lazy providers load the class here; eager ones already did when initializing.
+            Class<?> type = provider.lookup(key);
+            switch (level) {
+                case LOAD, NONE -> { }
+                // HotSpot links a class before reflecting over its members, without initializing it.
+                case LINK -> type.getDeclaredFields();
+                case INITIALIZE -> Class.forName(type.getName(), true, type.getClassLoader());
+            }
+        } catch (ClassNotFoundException | IllegalStateException | LinkageError e) {
+            failures.put(key, e);
+        }
+    }
+
     /**
      * Checks whether a type can be resolved for the given logical key.
      *
      * <p>
-     * This method delegates to {@link #resolve(String)} and returns {@code true} if resolution
-     * succeeds without throwing an exception. It therefore considers all resolution tiers:
-     * generated registry, arrays, primitives, and classpath lookups.
+     * This method considers all resolution tiers of {@link #resolve(String)}: generated registry,
+     * arrays, primitives, and classpath lookups. It is built on {@link #tryResolve(String)} and
+     * never throws for an unknown key.
      * </p>
      *
      * @param key Logical type identifier; must not be {@code null}.
@@ -199,12 +522,26 @@ public final class TypeKeyRegistry {
      */
     public static boolean canResolve(String key) {
         Objects.requireNonNull(key, "key cannot be null");
-        try {
-            resolve(key);
-            return true;
-        } catch (IllegalStateException e) {
-            return false;
-        }
+        return find(key) != null;
+    }
+
+    /**
+     * Resolves a type by its logical key without throwing when it is unknown.
+     *
+     * <p>
+     * Resolution follows the same tiers as {@link #resolve(String)}. A miss in the registry,
+     * array and primitive tiers neither throws nor allocates. The classpath tier pays for one
+     * {@link ClassNotFoundException} the first time a key is missed; later misses are answered
+     * from the negative cache (see {@link #invalidateNegativeCache()}).
+     * </p>
+     *
+     * @param key Logical type identifier; must not be {@code null}.
+     * @return The resolved {@link Class}, or {@link Optional#empty()} if no tier knows the key.
+     * @throws NullPointerException If {@code key} is {@code null}.
+     */
+    public static Optional<Class<?>> tryResolve(String key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        return Optional.ofNullable(find(key));
     }
 
     /**
@@ -212,13 +549,23 @@ public final class TypeKeyRegistry {
      *
      * <p>Resolution proceeds as follows:</p>
      * <ol>
-     *   <li><b>Generated registry</b>: Looks up {@code @TypeKey}-annotated types.</li>
-     *   <li><b>Arrays</b>: Keys ending with {@code "[]"} are resolved recursively via the
-     *       component key.</li>
+     *   <li><b>Generated registry</b>: Looks up {@code @TypeKey}-annotated types, by key or by
+     *       {@linkplain TypeKey#aliases() alias}, in a single lookup.</li>
+     *   <li><b>Arrays</b>: Keys ending with {@code "[]"} are resolved via the component key,
+     *       all dimensions at once; JVM descriptors such as {@code "[Ljava.lang.String;"} are
+     *       accepted too.</li>
      *   <li><b>Java primitives</b>: Maps {@code "boolean"} → {@code boolean.class}, etc.</li>
      *   <li><b>Classpath class</b>: Attempts {@link Class#forName(String)} on the remaining key.</li>
      * </ol>
      *
+     * <p>
+     * Keys the classpath tier fails to load are remembered in a bounded cache (see
+     * {@link #invalidateNegativeCache()}), so repeated misses skip the class loader. The size and
+     * time-to-live of that cache are read from the {@code typeindex.negativeCache.maxSize}
+     * (default {@code 10000}, {@code 0} disables it) and {@code typeindex.negativeCache.ttlMillis}
+     * (default {@code 60000}) system properties.
+     * </p>
+     *
      * @param key Logical type identifier; must not be {@code null}.
      * @return The resolved {@link Class} for the given key.
      * @throws NullPointerException  If {@code key} is {@code null}.
@@ -227,15 +574,27 @@ public final class TypeKeyRegistry {
     public static Class<?> resolve(String key) {
         Objects.requireNonNull(key, "key cannot be null");
 
-        // 1. Registry
-        Class<?> type = getRegistryProvider().getRegistry().get(key);
-        if (type != null) return type;
+        Class<?> type = find(key);
+        if (type == null) {
+            throw new IllegalStateException("Type not found: " + key);
+        }
+        return type;
+    }
+
+    /** Runs the resolution tiers of {@link #resolve(String)}, returning {@code null} on a miss. */
+    private static Class<?> find(String key) {
+        // 1. Registry, by key or alias
+        Class<?> type = getRegistryProvider().lookup(key);
+        if (type != null) {
+            if (COUNT_ALIAS_HITS && !key.equals(KEYS.get(type))) {
+                ALIAS_HITS.computeIfAbsent(key, alias -> new LongAdder()).increment();
+            }
+            return type;
+        }
 
-        // 2. Array handling
-        if (key.endsWith("[]")) {
-            String componentKey = key.substring(0, key.length() - 2);
-            Class<?> componentClass = resolve(componentKey); // recursive
-            return Array.newInstance(componentClass, 0).getClass();
+        // 2. Array handling: "component[]..." keys and JVM descriptors such as "[Ljava.lang.String;"
+        if (key.endsWith("[]") || key.startsWith("[")) {
+            return findArray(key);
         }
 
         // 3. Primitives
@@ -243,13 +602,122 @@ public final class TypeKeyRegistry {
         if (primitive != null) return primitive;
 
         // 4. Generic fallback: try to load class anywhere on the classpath
+        return findOnClasspath(key);
+    }
+
+    /**
+     * Resolves an array key in a single pass, counting all dimensions before resolving the
+     * component once. Results are cached by key, so steady-state resolution does not allocate.
+     */
+    private static Class<?> findArray(String key) {
+        Class<?> cached = ARRAY_TYPES.get(key);
+        if (cached != null) return cached;
+
+        int length = key.length();
+        int dimensions;
+        Class<?> component;
+
+        if (key.charAt(0) == '[') {
+            // JVM descriptor: one '[' per dimension, then a primitive code or "Lbinary.Name;"
+            dimensions = 0;
+            while (dimensions < length && key.charAt(dimensions) == '[') dimensions++;
+            component = findDescriptorComponent(key, dimensions);
+        } else {
+            // "component[][]...": strip every trailing "[]" pair at once
+            int end = length;
+            while (end >= 2 && key.charAt(end - 1) == ']' && key.charAt(end - 2) == '[') end -= 2;
+            dimensions = (length - end) / 2;
+            component = end == 0 ? null : find(key.substring(0, end));
+        }
+        if (component == null) return null;
+
+        Class<?> type = component;
         try {
-            return Class.forName(key);
+            for (int d = 0; d < dimensions; d++) {
+                type = ARRAY_TYPE.get(type);
+            }
+        } catch (UnsupportedOperationException e) {
+            return null; // void component or more than 255 dimensions
+        }
+
+        if (ARRAY_TYPES.size() < MAX_CACHED_ARRAY_KEYS && outlivesRegistry(component)) {
+            ARRAY_TYPES.putIfAbsent(key, type);
+        }
+        return type;
+    }
+
+    /** @return Whether the loader of {@code type} is the loader of this class or one of its parents. */
+    private static boolean outlivesRegistry(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) return true;
+        for (ClassLoader l = TypeKeyRegistry.class.getClassLoader(); l != null; l = l.getParent()) {
+            if (l == loader) return true;
+        }
+        return false;
+    }
+
+    /** Resolves the element type of a JVM array descriptor whose dimensions end at {@code start}. */
+    private static Class<?> findDescriptorComponent(String descriptor, int start) {
+        int length = descriptor.length();
+        if (start == length) return null;
+
+        char code = descriptor.charAt(start);
+        if (code == 'L') {
+            if (length - start < 3 || descriptor.charAt(length - 1) != ';') return null;
+            return findOnClasspath(descriptor.substring(start + 1, length - 1));
+        }
+        if (length - start != 1) return null;
+
+        return switch (code) {
+            case 'Z' -> boolean.class;
+            case 'B' -> byte.class;
+            case 'C' -> char.class;
+            case 'S' -> short.class;
+            case 'I' -> int.class;
+            case 'J' -> long.class;
+            case 'F' -> float.class;
+            case 'D' -> double.class;
+            default -> null;
+        };
+    }
+
+    /** Classpath tier: {@link Class#forName(String)}, remembering misses in the negative cache. */
+    private static Class<?> findOnClasspath(String name) {
+        if (NEGATIVE_CACHE.contains(name)) {
+            return null;
+        }
+        try {
+            return Class.forName(name);
         } catch (ClassNotFoundException e) {
-            throw new IllegalStateException("Type not found: " + key, e);
+            NEGATIVE_CACHE.add(name);
+            return null;
         }
     }
 
+    /**
+     * Forgets all keys remembered as not loadable by the classpath tier, and the resolved array keys.
+     *
+     * <p>
+     * Call this after making new classes available at runtime (e.g. loading a plugin) so that
+     * keys which previously failed are looked up again.
+     * </p>
+     */
+    public static void invalidateNegativeCache() {
+        NEGATIVE_CACHE.invalidateAll();
+        ARRAY_TYPES.clear();
+    }
+
+    /**
+     * Forgets the given key if it was remembered as not loadable by the classpath tier.
+     *
+     * @param key Logical type identifier; must not be {@code null}.
+     * @throws NullPointerException If {@code key} is {@code null}.
+     */
+    public static void invalidateNegativeCache(String key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        NEGATIVE_CACHE.invalidate(key);
+    }
+
     /**
      * Resolves the type by key and verifies that it matches the expected class.
      *
@@ -283,6 +751,172 @@ public final class TypeKeyRegistry {
         return (Class<T>) mapped;
     }
 
+    /**
+     * Resolves the type by key and verifies that it is {@code baseType} or one of its subtypes.
+     *
+     * <p>
+     * Unlike {@link #resolve(String, Class)}, which requires the exact class, this suits
+     * polymorphic deserialization, where a key names a concrete implementation of an expected
+     * base type.
+     * </p>
+     *
+     * @param key      Logical type identifier; must not be {@code null}.
+     * @param baseType Expected class or interface; must not be {@code null}.
+     * @param <T>      The expected base type.
+     * @return The resolved class, as a subtype of {@code baseType}.
+     * @throws NullPointerException     If {@code key} or {@code baseType} is {@code null}.
+     * @throws IllegalArgumentException If the resolved type is not assignable to {@code baseType}.
+     * @throws IllegalStateException    If no mapping exists for the given key in any tier.
+     */
+    public static <T> Class<? extends T> resolveSubtype(String key, Class<T> baseType) {
+        Objects.requireNonNull(key, "key cannot be null");
+        Objects.requireNonNull(baseType, "baseType cannot be null");
+
+        Class<?> mapped = resolve(key);
+
+        if (!baseType.isAssignableFrom(mapped)) {
+            throw new IllegalArgumentException(
+                    "Registry mismatch for key '" + key + "'. Expected a subtype of " +
+                            baseType.getName() + ", found: " + mapped.getName()
+            );
+        }
+
+        return mapped.asSubclass(baseType);
+    }
+
+    /**
+     * Returns the registered types assignable to the given class or interface, including the
+     * type itself if it is registered.
+     *
+     * <p>
+     * Answers from the supertypes recorded for each registered type at compile time (see
+     * {@link RegistryProvider#getSubtypeIndex()}) instead of testing every registered class.
+     * Only registered types are listed; with a provider generated with
+     * {@code -Atypeindex.classLoading=lazy}, only the listed classes are loaded. Results are
+     * memoized per type.
+     * </p>
+     *
+     * @param baseType Class or interface; must not be {@code null}.
+     * @param <T>      The base type.
+     * @return An unmodifiable list of the registered subtypes of {@code baseType}, empty if none.
+     * @throws NullPointerException If {@code baseType} is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<Class<? extends T>> subtypesOf(Class<T> baseType) {
+        Objects.requireNonNull(baseType, "baseType cannot be null");
+        return (List<Class<? extends T>>) (List<?>) SUBTYPES.get(baseType);
+    }
+
+    /**
+     * Returns how many times each {@linkplain TypeKey#aliases() alias} was resolved, to tell
+     * when data persisted with a former key is gone and the alias can be dropped.
+     *
+     * <p>
+     * Counting is disabled unless the {@code typeindex.aliasStats} system property is
+     * {@code true} when this class initializes; resolution then costs nothing more. When it is
+     * enabled, a resolution through an alias costs one memoized {@link #keyOf(Class)} and one
+     * counter increment. Resolutions answered from a cache, such as an {@link UnwrapPlan}, are
+     * counted once.
+     * </p>
+     *
+     * @return A snapshot of the counts by alias; aliases never resolved are absent.
+     */
+    public static Map<String, Long> aliasHits() {
+        Map<String, Long> hits = new HashMap<>(ALIAS_HITS.size() * 4 / 3 + 1);
+        ALIAS_HITS.forEach((alias, count) -> hits.put(alias, count.sum()));
+        return Collections.unmodifiableMap(hits);
+    }
+
+    /**
+     * Returns the registered keys starting with the given prefix, such as the keys of a
+     * namespace like {@code "status."}.
+     *
+     * <p>
+     * Keys are sorted at compile time, so the matching keys are a contiguous range found by
+     * binary search (see {@link RegistryProvider#getKeyIndex()}); the returned list is a view
+     * of that range and nothing is copied. No class is loaded.
+     * </p>
+     *
+     * @param prefix Key prefix; {@code ""} matches every registered key. Must not be {@code null}.
+     * @return An unmodifiable list of the matching registered keys, sorted, empty if none.
+     * @throws NullPointerException If {@code prefix} is {@code null}.
+     */
+    public static List<String> keysWithPrefix(String prefix) {
+        Objects.requireNonNull(prefix, "prefix cannot be null");
+        return KeyIndexHolder.INDEX.keysWithPrefix(prefix);
+    }
+
+    /**
+     * Returns the registered types declared in the given package, sorted by key.
+     *
+     * <p>
+     * Answers from the packages recorded at compile time (see
+     * {@link RegistryProvider#getKeyIndex()}); only the listed classes are loaded. Results are
+     * memoized per package.
+     * </p>
+     *
+     * @param packageName Qualified package name, {@code ""} for the unnamed package; types of
+     *                    subpackages are not included. Must not be {@code null}.
+     * @return An unmodifiable list of the registered types of the package, empty if none.
+     * @throws NullPointerException If {@code packageName} is {@code null}.
+     */
+    public static List<Class<?>> typesInPackage(String packageName) {
+        Objects.requireNonNull(packageName, "packageName cannot be null");
+        List<Class<?>> types = TYPES_BY_PACKAGE.get(packageName);
+        if (types == null) {
+            List<String> keys = KeyIndexHolder.INDEX.keysInPackage(packageName);
+            if (keys.isEmpty()) {
+                return List.of();
+            }
+            types = memoize(TYPES_BY_PACKAGE, packageName, typesOf(keys));
+        }
+        return types;
+    }
+
+    /**
+     * Returns the registered types of the given kind, such as every registered record, sorted
+     * by key.
+     *
+     * <p>
+     * Answers from the kinds recorded at compile time (see {@link RegistryProvider#getKeyIndex()});
+     * only the listed classes are loaded. Results are memoized per kind.
+     * </p>
+     *
+     * @param kind Type kind; must not be {@code null}.
+     * @return An unmodifiable list of the registered types of that kind, empty if none.
+     * @throws NullPointerException If {@code kind} is {@code null}.
+     */
+    public static List<Class<?>> typesOfKind(TypeKind kind) {
+        Objects.requireNonNull(kind, "kind cannot be null");
+        List<Class<?>> types = TYPES_BY_KIND.get(kind);
+        if (types == null) {
+            types = memoize(TYPES_BY_KIND, kind, typesOf(KeyIndexHolder.INDEX.keysOfKind(kind)));
+        }
+        return types;
+    }
+
+    /**
+     * Memoizes a list of types computed outside the map: loading them may run static initializers
+     * calling back into this class, which {@link Map#computeIfAbsent} would reject as a recursive
+     * update, or deadlock on across threads.
+     *
+     * @return The list memoized first under {@code key}.
+     */
+    private static <K> List<Class<?>> memoize(Map<K, List<Class<?>>> cache, K key, List<Class<?>> types) {
+        List<Class<?>> memoized = cache.putIfAbsent(key, types);
+        return memoized != null ? memoized : types;
+    }
+
+    /** @return The registered classes of the given keys, in the same order. */
+    private static List<Class<?>> typesOf(List<String> keys) {
+        RegistryProvider provider = getRegistryProvider();
+        List<Class<?>> types = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            types.add(provider.lookup(key));
+        }
+        return List.copyOf(types);
+    }
+
     /**
      * Returns the logical {@link TypeKey} value associated with the given class.
      *
@@ -301,31 +935,77 @@ public final class TypeKeyRegistry {
      * that keys remain stable even if the class name or package changes.
      * </p>
      *
+     * <p>
+     * Keys are memoized per class; after the first call for a given class, this method
+     * does not allocate.
+     * </p>
+     *
      * @param type Class to lookup; must not be {@code null}.
      * @return The stable logical key for this class.
      * @throws NullPointerException If {@code type} is {@code null}.
      */
     public static String keyOf(Class<?> type) {
         Objects.requireNonNull(type, "type cannot be null");
-        getRegistryProvider(); // Ensure provider and reverse registry are initialized.
-        return computeKey(type);
+        getRegistryProvider(); // Ensure the provider is initialized.
+        return KEYS.get(type);
     }
 
-    /** Compute key for a type, recursively handling arrays. */
+    /**
+     * Returns the type ID declared for the given class with {@code @TypeKey(id = ...)}.
+     *
+     * <p>
+     * IDs are memoized per class; after the first call for a given class, this method
+     * neither allocates nor hashes strings.
+     * </p>
+     *
+     * @param type Class to lookup; must not be {@code null}.
+     * @return The type ID of this class, or {@link TypeKey#NO_ID} if it declares none.
+     * @throws NullPointerException If {@code type} is {@code null}.
+     */
+    public static int idOf(Class<?> type) {
+        Objects.requireNonNull(type, "type cannot be null");
+        return IDS.get(type);
+    }
+
+    /**
+     * Resolves a type by the ID declared with {@code @TypeKey(id = ...)}.
+     *
+     * <p>
+     * IDs index an array built on first use, so resolution costs no string hashing. With a
+     * provider generated with {@code -Atypeindex.classLoading=lazy}, a class is loaded on the
+     * first resolution of its ID.
+     * </p>
+     *
+     * @param id Type ID.
+     * @return The class declaring this ID.
+     * @throws IllegalStateException If no registered class declares this ID.
+     */
+    public static Class<?> resolveById(int id) {
+        Class<?>[] types = TypeIdHolder.TYPES_BY_ID;
+        if (id >= 0 && id < types.length) {
+            Class<?> type = types[id];
+            if (type != null) return type;
+
+            String key = TypeIdHolder.KEYS_BY_ID[id];
+            if (key != null && (type = getRegistryProvider().lookup(key)) != null) {
+                types[id] = type;
+                return type;
+            }
+        }
+        throw new IllegalStateException("Type not found for id: " + id);
+    }
+
+    /** Compute key for a type; array component keys come from the memoized {@link #KEYS}. */
     private static String computeKey(Class<?> type) {
         if (type.isArray()) {
-            return computeKey(type.getComponentType()) + "[]";
+            return KEYS.get(type.getComponentType()) + "[]";
         }
 
-        // primitive or registry
-        String key = REVERTED_REGISTRY.get(type);
+        // registry
+        String key = getRegistryProvider().keyOf(type);
         if (key != null) return key;
 
-        for (Map.Entry<String, Class<?>> entry : PRIMITIVES.entrySet()) {
-            if (entry.getValue().equals(type)) return entry.getKey();
-        }
-
-        // fallback
+        // primitives ("int", "boolean", ...) and fallback: both are the class name
         return type.getName();
     }
 
@@ -357,20 +1037,135 @@ public final class TypeKeyRegistry {
      */
     public static List<ParamEnvelope> wrap(Object[] params){
         List<ParamEnvelope> list = new ArrayList<>(params.length);
+        getRegistryProvider(); // Ensure the provider is initialized, once for all parameters.
 
         for (Object param : params) {
             if (param == null) {
-                list.add(new ParamEnvelope("null", null));
+                list.add(new ParamEnvelope(NULL_KEY, null));
                 continue;
             }
 
-            String key = keyOf(param.getClass());
+            String key = KEYS.get(param.getClass());
             list.add(new ParamEnvelope(key, param));
         }
 
         return list;
     }
 
+    /**
+     * Wraps an array of method parameters into a reusable {@link EnvelopeBatch}, storing
+     * type keys and values side by side instead of creating one {@link ParamEnvelope} each.
+     *
+     * <p>
+     * The batch is cleared first. Keys are derived as by {@link #wrap(Object[])}, {@code null}
+     * parameters getting the {@code "null"} key. Once the batch has grown to the parameter count
+     * and the parameter classes have been seen, this method does not allocate.
+     * </p>
+     *
+     * @param params Array of parameter values to wrap; may contain {@code null} elements.
+     * @param batch  Batch receiving the parameters; must not be {@code null}.
+     * @return {@code batch}, holding one entry per parameter.
+     * @throws NullPointerException If {@code params} or {@code batch} is {@code null}.
+     */
+    public static EnvelopeBatch wrap(Object[] params, EnvelopeBatch batch) {
+        Objects.requireNonNull(batch, "batch cannot be null");
+        batch.clear();
+        batch.ensureCapacity(params.length);
+        getRegistryProvider(); // Ensure the provider is initialized, once for all parameters.
+
+        for (Object param : params) {
+            batch.add(param == null ? NULL_KEY : KEYS.get(param.getClass()), param);
+        }
+        return batch;
+    }
+
+    /**
+     * Wraps an array of method parameters as {@link #wrap(Object[])} does, spreading the work over
+     * the executor of {@code options} for arrays of at least {@link ParallelOptions#threshold()}
+     * parameters.
+     *
+     * @param params  Array of parameter values to wrap; may contain {@code null} elements.
+     * @param options Parallelism options; must not be {@code null}.
+     * @return A list of {@link ParamEnvelope}, in the order of {@code params}.
+     * @throws NullPointerException If {@code params} or {@code options} is {@code null}.
+     */
+    public static List<ParamEnvelope> wrap(Object[] params, ParallelOptions options) {
+        Objects.requireNonNull(options, "options cannot be null");
+        if (params.length < options.threshold()) {
+            return wrap(params);
+        }
+
+        getRegistryProvider(); // Ensure the provider is initialized before tasks start.
+        ParamEnvelope[] envelopes = new ParamEnvelope[params.length];
+        forEachParallel(params.length, options, i -> envelopes[i] = params[i] == null
+                ? new ParamEnvelope(NULL_KEY, null)
+                : new ParamEnvelope(KEYS.get(params[i].getClass()), params[i]));
+        return new ArrayList<>(Arrays.asList(envelopes));
+    }
+
+    /**
+     * Reconstructs an array of parameters as {@link #unwrap(List, BiFunction)} does, running the
+     * mapper in parallel on the executor of {@code options} for lists of at least
+     * {@link ParallelOptions#threshold()} envelopes.
+     *
+     * <p>
+     * The mapper must tolerate concurrent calls. Parameters keep the order of the envelopes. If
+     * mapping fails, the exception of one of the failing tasks is rethrown once every task has
+     * completed.
+     * </p>
+     *
+     * @param envelopes List of wrapped parameters; must not be {@code null}.
+     * @param mapper    Function that converts a raw value and expected type into an actual typed instance;
+     *                  must not be {@code null}.
+     * @param options   Parallelism options; must not be {@code null}.
+     * @return A new array of parameters matching the envelopes in size and order.
+     * @throws IllegalStateException If a {@code typeKey} cannot be resolved.
+     * @throws RuntimeException      If the mapper throws an exception during conversion.
+     */
+    public static Object[] unwrap(List<ParamEnvelope> envelopes, BiFunction<Object, Class<?>, Object> mapper,
+                                  ParallelOptions options) {
+        Objects.requireNonNull(options, "options cannot be null");
+        if (envelopes.size() < options.threshold()) {
+            return unwrap(envelopes, mapper);
+        }
+
+        // Copy first, so that tasks neither depend on the list being thread-safe nor random access.
+        ParamEnvelope[] input = envelopes.toArray(new ParamEnvelope[0]);
+        Object[] params = new Object[input.length];
+        forEachParallel(input.length, options, i -> {
+            if (!NULL_KEY.equals(input[i].typeKey())) {
+                params[i] = mapper.apply(input[i].value(), resolve(input[i].typeKey()));
+            }
+        });
+        return params;
+    }
+
+    /**
+     * Runs {@code action} for every index below {@code size}, in chunks of consecutive indexes
+     * submitted to the executor of {@code options}, and waits for all of them.
+     */
+    private static void forEachParallel(int size, ParallelOptions options, IntConsumer action) {
+        int chunkSize = options.chunkSizeFor(size);
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[(size + chunkSize - 1) / chunkSize];
+        for (int t = 0; t < tasks.length; t++) {
+            int from = t * chunkSize;
+            int to = Math.min(size, from + chunkSize);
+            tasks[t] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            }, options.executor());
+        }
+
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
     /**
      * Reconstructs an array of parameters from a list of {@link ParamEnvelope} instances,
      * using a user-provided mapper function to convert stored raw values into instances
@@ -403,7 +1198,7 @@ public final class TypeKeyRegistry {
         for (int i = 0; i < envelopes.size(); i++) {
             ParamEnvelope env = envelopes.get(i);
 
-            if ("null".equals(env.typeKey())) {
+            if (NULL_KEY.equals(env.typeKey())) {
                 params[i] = null;
                 continue;
             }
@@ -414,4 +1209,215 @@ public final class TypeKeyRegistry {
 
         return params;
     }
+
+    /**
+     * Lazily reconstructs parameters from a sequence of {@link ParamEnvelope} instances, as
+     * {@link #unwrap(List, BiFunction)} does for a list, without materializing them.
+     *
+     * <p>
+     * Each envelope is read and mapped when the returned iterator reaches it, so memory stays
+     * bounded whatever the length of the sequence. Recently seen type keys are remembered in a
+     * small fixed-size cache, so a sequence repeating a few keys resolves each of them once.
+     * </p>
+     *
+     * @param envelopes Wrapped parameters; must not be {@code null}.
+     * @param mapper    Function that converts a raw value and expected type into an actual typed instance;
+     *                  must not be {@code null}.
+     * @return An iterator over the mapped parameters, {@code null} for {@code "null"} envelopes.
+     * @throws NullPointerException If {@code envelopes} or {@code mapper} is {@code null}.
+     * @see #unwrap(Stream, BiFunction)
+     */
+    public static Iterator<Object> unwrap(Iterator<ParamEnvelope> envelopes, BiFunction<Object, Class<?>, Object> mapper) {
+        Objects.requireNonNull(envelopes, "envelopes cannot be null");
+        Objects.requireNonNull(mapper, "mapper cannot be null");
+        ResolvedKeys keys = new ResolvedKeys();
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return envelopes.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                return keys.unwrap(envelopes.next(), mapper);
+            }
+        };
+    }
+
+    /**
+     * Lazily reconstructs parameters from a stream of {@link ParamEnvelope} instances, as
+     * {@link #unwrap(List, BiFunction)} does for a list, without materializing them.
+     *
+     * <p>
+     * Envelopes are mapped as the returned stream is consumed, in encounter order. Recently seen
+     * type keys are remembered in a small fixed-size cache, safe to share across threads since the
+     * pipeline may be made parallel after this call. Streams over a {@link java.util.Spliterator} can be unwrapped through
+     * {@link java.util.stream.StreamSupport#stream(java.util.Spliterator, boolean)}.
+     * </p>
+     *
+     * @param envelopes Wrapped parameters; must not be {@code null}.
+     * @param mapper    Function that converts a raw value and expected type into an actual typed instance;
+     *                  must not be {@code null}.
+     * @return A stream of the mapped parameters, {@code null} for {@code "null"} envelopes.
+     * @throws NullPointerException If {@code envelopes} or {@code mapper} is {@code null}.
+     */
+    public static Stream<Object> unwrap(Stream<ParamEnvelope> envelopes, BiFunction<Object, Class<?>, Object> mapper) {
+        Objects.requireNonNull(envelopes, "envelopes cannot be null");
+        Objects.requireNonNull(mapper, "mapper cannot be null");
+        ResolvedKeys keys = new ResolvedKeys();
+
+        return envelopes.map(envelope -> keys.unwrap(envelope, mapper));
+    }
+
+    /**
+     * Type keys resolved while unwrapping one sequence of envelopes. Sequences usually repeat a
+     * handful of keys, which this resolves once each, instead of once per envelope.
+     * <p>
+     * The cache is direct-mapped: each key has a single slot, chosen by its hash, holding the last
+     * key resolved there. Its size is fixed whatever the number of distinct keys in the sequence,
+     * hits do not allocate, and slots can be read and replaced from several threads.
+     * </p>
+     */
+    private static final class ResolvedKeys {
+
+        /** Number of slots; a power of two. */
+        private static final int SLOTS = 64;
+
+        private final AtomicReferenceArray<Resolved> slots = new AtomicReferenceArray<>(SLOTS);
+
+        private record Resolved(String key, Class<?> type) {
+        }
+
+        Object unwrap(ParamEnvelope envelope, BiFunction<Object, Class<?>, Object> mapper) {
+            String key = envelope.typeKey();
+            if (NULL_KEY.equals(key)) {
+                return null;
+            }
+
+            int slot = key.hashCode() & (SLOTS - 1);
+            Resolved resolved = slots.get(slot);
+            if (resolved == null || !resolved.key().equals(key)) {
+                resolved = new Resolved(key, resolve(key));
+                slots.set(slot, resolved);
+            }
+            return mapper.apply(envelope.value(), resolved.type());
+        }
+    }
+
+    /**
+     * Reconstructs an array of parameters from an {@link EnvelopeBatch}, as
+     * {@link #unwrap(List, BiFunction)} does from a list of envelopes.
+     *
+     * @param batch  Batch produced by {@link #wrap(Object[], EnvelopeBatch)}; must not be {@code null}.
+     * @param mapper Function that converts a raw value and expected type into an actual typed instance;
+     *               must not be {@code null}.
+     * @return A new array of parameters matching the batch in size and order.
+     * @throws IllegalStateException If a type key cannot be resolved.
+     * @throws RuntimeException      If the mapper throws an exception during conversion.
+     */
+    public static Object[] unwrap(EnvelopeBatch batch, BiFunction<Object, Class<?>, Object> mapper) {
+        Object[] params = new Object[batch.size()];
+
+        for (int i = 0; i < params.length; i++) {
+            String typeKey = batch.typeKey(i);
+            if (!NULL_KEY.equals(typeKey)) {
+                params[i] = mapper.apply(batch.value(i), resolve(typeKey));
+            }
+        }
+
+        return params;
+    }
+
+    /**
+     * Returns the plan unwrapping envelopes whose type keys are {@code typeKeys}, in order.
+     *
+     * <p>
+     * Plans are cached by key tuple, so a signature seen before costs one hash lookup however many
+     * keys it has. The cache holds up to {@code 1024} plans, or the number given by the
+     * {@value #PLAN_CACHE_SIZE_PROPERTY} system property.
+     * </p>
+     *
+     * @param typeKeys Type keys of the signature, {@code "null"} for slots holding {@code null};
+     *                 must not be {@code null} nor contain {@code null}.
+     * @return The plan of this signature.
+     * @throws NullPointerException  If {@code typeKeys} is or contains {@code null}.
+     * @throws IllegalStateException If a key cannot be resolved.
+     */
+    public static UnwrapPlan unwrapPlan(List<String> typeKeys) {
+        String[] keys = typeKeys.toArray(new String[0]);
+        for (String key : keys) {
+            Objects.requireNonNull(key, "typeKeys cannot contain null");
+        }
+        return unwrapPlan(keys);
+    }
+
+    /**
+     * Returns the plan unwrapping envelopes with the type keys of {@code envelopes}, as
+     * {@link #unwrapPlan(List)} does.
+     *
+     * @param envelopes Wrapped parameters; must not be {@code null}.
+     * @return The plan of the signature of these envelopes.
+     * @throws IllegalStateException If a type key cannot be resolved.
+     */
+    public static UnwrapPlan unwrapPlanOf(List<ParamEnvelope> envelopes) {
+        String[] keys = new String[envelopes.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = envelopes.get(i).typeKey();
+        }
+        return unwrapPlan(keys);
+    }
+
+    private static UnwrapPlan unwrapPlan(String[] keys) {
+        Signature signature = new Signature(keys);
+        UnwrapPlan plan = UNWRAP_PLANS.get(signature);
+        if (plan != null) return plan;
+
+        plan = UnwrapPlan.of(keys);
+        if (MAX_CACHED_PLANS > 0) {
+            if (UNWRAP_PLANS.size() >= MAX_CACHED_PLANS) {
+                // Drop an arbitrary eighth; the bound is approximate under concurrent inserts.
+                Iterator<Signature> it = UNWRAP_PLANS.keySet().iterator();
+                for (int n = Math.max(1, MAX_CACHED_PLANS / 8); n > 0 && it.hasNext(); n--) {
+                    it.next();
+                    it.remove();
+                }
+            }
+            UnwrapPlan cached = UNWRAP_PLANS.putIfAbsent(signature, plan);
+            if (cached != null) return cached;
+        }
+        return plan;
+    }
+
+    /** Key tuple of an {@link UnwrapPlan}, compared by content. */
+    private record Signature(String[] keys) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature other && Arrays.equals(keys, other.keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(keys);
+        }
+    }
+
+    /**
+     * Returns a plan wrapping arguments of the given declared parameter types, deriving the key of
+     * each type once instead of once per argument.
+     *
+     * <p>
+     * Wrap plans are not cached; build one per method, typically from
+     * {@link java.lang.reflect.Method#getParameterTypes()}.
+     * </p>
+     *
+     * @param parameterTypes Declared parameter types; must not be or contain {@code null}.
+     * @return A plan producing the same envelopes as {@link #wrap(Object[])}.
+     * @throws NullPointerException     If {@code parameterTypes} is or contains {@code null}.
+     * @throws IllegalArgumentException If a parameter type is {@code void}.
+     */
+    public static WrapPlan wrapPlan(Class<?>... parameterTypes) {
+        return WrapPlan.of(parameterTypes);
+    }
 }
@@ -0,0 +1,33 @@
+package io.github.cyfko.typeindex;
+
+/**
+ * Kinds of types {@link TypeKey} can be applied to, recorded for every registered type by the
+ * annotation processor.
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ * @see TypeKeyRegistry#typesOfKind(TypeKind)
+ */
+public enum TypeKind {
+
+    /** A class, abstract or not, other than a record or an enum. */
+    CLASS,
+
+    /** A record class. */
+    RECORD,
+
+    /** An enum class. */
+    ENUM;
+
+    /**
+     * @param type Class to classify; must not be {@code null}.
+     * @return The kind of {@code type}, {@link #ENUM} for the class of an enum constant with a body
+     *         too; {@link #CLASS} for interfaces, arrays, primitives and {@code Enum} itself.
+     */
+    public static TypeKind of(Class<?> type) {
+        if (type.isRecord()) return RECORD;
+        // isEnum() is false for the subclass of an enum constant with a body
+        if (Enum.class.isAssignableFrom(type) && type != Enum.class) return ENUM;
+        return CLASS;
+    }
+}
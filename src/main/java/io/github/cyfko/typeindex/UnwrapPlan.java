@@ -0,0 +1,251 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Type keys of a parameter signature, resolved once, for unwrapping many envelope lists sharing
+ * that signature.
+ *
+ * <p>
+ * {@link TypeKeyRegistry#unwrap(List, BiFunction)} resolves the type key of every envelope on
+ * every call. A plan resolves a tuple of keys when built, then only checks that the envelopes
+ * carry these keys. Plans are obtained from {@link TypeKeyRegistry#unwrapPlan(List)} or
+ * {@link TypeKeyRegistry#unwrapPlanOf(List)}, which cache them by key tuple.
+ * </p>
+ *
+ * <pre>{@code
+ * // RPC dispatcher: one plan per distinct signature, one mapper per slot.
+ * // The binder is created once, so that bind() finds the mappers it bound before.
+ * private final Function<Class<?>, Function<Object, ?>> fromJson = type -> value -> json.convertValue(value, type);
+ *
+ * Object[] args = TypeKeyRegistry.unwrapPlanOf(envelopes)
+ *         .bind(fromJson)
+ *         .unwrap(envelopes);
+ * }</pre>
+ *
+ * <p>
+ * Plans are immutable and thread-safe.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ * @see WrapPlan
+ */
+public final class UnwrapPlan {
+
+    /** Maximum number of binders whose bound plans are kept by each plan. */
+    private static final int MAX_BOUND_PLANS = 8;
+
+    private final String[] keys;
+    private final List<String> typeKeys;
+
+    /** Resolved type of each slot; {@code null} for {@code "null"} slots. */
+    private final Class<?>[] types;
+
+    /** Mapper of each slot once bound, {@code null} for {@code "null"} slots; {@code null} if unbound. */
+    private final Function<Object, ?>[] mappers;
+
+    /**
+     * Plans returned by {@link #bind(Function)}, with the binder they were bound by. Binders are
+     * weakly referenced, so that the plans of collected binders free their slot; when every slot
+     * is taken, slots are replaced in turn, so that a burst of throwaway binders cannot keep
+     * later ones from being cached.
+     */
+    private final AtomicReferenceArray<Bound> bound = new AtomicReferenceArray<>(MAX_BOUND_PLANS);
+
+    /** Count of plans that replaced a live one, picking the next slot to replace. */
+    private final AtomicInteger replaced = new AtomicInteger();
+
+    private record Bound(WeakReference<Function<?, ?>> binder, UnwrapPlan plan) {
+    }
+
+    private UnwrapPlan(String[] keys, Class<?>[] types, Function<Object, ?>[] mappers) {
+        this.keys = keys;
+        this.typeKeys = List.of(keys);
+        this.types = types;
+        this.mappers = mappers;
+    }
+
+    /**
+     * Resolves every key of a signature.
+     *
+     * @throws IllegalStateException If a key cannot be resolved.
+     */
+    static UnwrapPlan of(String[] keys) {
+        Class<?>[] types = new Class<?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (!TypeKeyRegistry.NULL_KEY.equals(keys[i])) {
+                types[i] = TypeKeyRegistry.resolve(keys[i]);
+            }
+        }
+        return new UnwrapPlan(keys, types, null);
+    }
+
+    /** @return The type keys of this signature, in slot order. */
+    public List<String> typeKeys() {
+        return typeKeys;
+    }
+
+    /** @return The number of parameters of this signature. */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param slot Parameter index.
+     * @return The class the key of this slot resolved to, or {@code null} for a {@code "null"} slot.
+     * @throws IndexOutOfBoundsException If {@code slot} is out of range.
+     */
+    public Class<?> type(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Returns the method type of this signature: one parameter per slot, of the class its key
+     * resolved to, or {@code Object} for {@code "null"} slots, and an {@code Object} return type.
+     *
+     * @return The method type of this signature.
+     */
+    public MethodType methodType() {
+        Class<?>[] parameterTypes = types.clone();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] == null) {
+                parameterTypes[i] = Object.class;
+            }
+        }
+        return MethodType.methodType(Object.class, parameterTypes);
+    }
+
+    /**
+     * Tells whether the given envelopes carry exactly the type keys of this plan, in order.
+     *
+     * @param envelopes Wrapped parameters; must not be {@code null}.
+     * @return {@code true} if this plan can unwrap the envelopes.
+     */
+    public boolean matches(List<ParamEnvelope> envelopes) {
+        if (envelopes.size() != keys.length) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (!keys[i].equals(envelopes.get(i).typeKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reconstructs an array of parameters as {@link TypeKeyRegistry#unwrap(List, BiFunction)} does,
+     * using the types resolved by this plan.
+     *
+     * @param envelopes Wrapped parameters matching this plan; must not be {@code null}.
+     * @param mapper    Function that converts a raw value and expected type into an actual typed instance;
+     *                  must not be {@code null}.
+     * @return A new array of parameters matching the envelopes in size and order.
+     * @throws IllegalArgumentException If the envelopes do not {@linkplain #matches(List) match} this plan.
+     * @throws RuntimeException         If the mapper throws an exception during conversion.
+     */
+    public Object[] unwrap(List<ParamEnvelope> envelopes, BiFunction<Object, Class<?>, Object> mapper) {
+        Objects.requireNonNull(mapper, "mapper cannot be null");
+        checkMatches(envelopes);
+
+        Object[] params = new Object[keys.length];
+        for (int i = 0; i < params.length; i++) {
+            if (types[i] != null) {
+                params[i] = mapper.apply(envelopes.get(i).value(), types[i]);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Returns a plan mapping each slot with a function specialized for its type, such as a
+     * deserializer looked up once per type instead of once per value.
+     *
+     * <p>
+     * The binder is called once per non-{@code "null"} slot. Bound plans are remembered by binder
+     * instance, for the last few binders still reachable, so binding the same instance again
+     * returns its plan without calling the binder. The binder must therefore be a stable instance,
+     * such as a field: a lambda expression evaluated on every call, as when it captures a local
+     * variable, is a new instance each time, and has every slot bound again.
+     * </p>
+     *
+     * @param binder Function returning the mapper of values of a given type; must not be {@code null}
+     *               nor return {@code null}.
+     * @return A plan whose {@link #unwrap(List)} applies the bound mappers.
+     * @throws NullPointerException If {@code binder} is {@code null} or returns {@code null}.
+     */
+    public UnwrapPlan bind(Function<? super Class<?>, ? extends Function<Object, ?>> binder) {
+        Objects.requireNonNull(binder, "binder cannot be null");
+        int free = -1;
+        for (int i = 0; i < MAX_BOUND_PLANS; i++) {
+            Bound cached = bound.get(i);
+            Function<?, ?> cachedBinder = cached == null ? null : cached.binder().get();
+            if (cachedBinder == binder) {
+                return cached.plan();
+            }
+            if (cachedBinder == null && free < 0) {
+                free = i;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Function<Object, ?>[] slotMappers = (Function<Object, ?>[]) new Function<?, ?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (types[i] != null) {
+                slotMappers[i] = Objects.requireNonNull(binder.apply(types[i]),
+                        "binder returned no mapper for " + types[i].getName());
+            }
+        }
+        UnwrapPlan plan = new UnwrapPlan(keys, types, slotMappers);
+        // Racing binds may both cache a plan of the same binder, which is harmless
+        int slot = free >= 0 ? free : Math.floorMod(replaced.getAndIncrement(), MAX_BOUND_PLANS);
+        bound.set(slot, new Bound(new WeakReference<>(binder), plan));
+        return plan;
+    }
+
+    /**
+     * Reconstructs an array of parameters with the mappers bound by {@link #bind(Function)}.
+     *
+     * @param envelopes Wrapped parameters matching this plan; must not be {@code null}.
+     * @return A new array of parameters matching the envelopes in size and order.
+     * @throws IllegalStateException    If no mappers are bound to this plan.
+     * @throws IllegalArgumentException If the envelopes do not {@linkplain #matches(List) match} this plan.
+     * @throws RuntimeException         If a mapper throws an exception during conversion.
+     */
+    public Object[] unwrap(List<ParamEnvelope> envelopes) {
+        if (mappers == null) {
+            throw new IllegalStateException("No mappers bound to this plan; call bind(...) first");
+        }
+        checkMatches(envelopes);
+
+        Object[] params = new Object[keys.length];
+        for (int i = 0; i < params.length; i++) {
+            if (mappers[i] != null) {
+                params[i] = mappers[i].apply(envelopes.get(i).value());
+            }
+        }
+        return params;
+    }
+
+    private void checkMatches(List<ParamEnvelope> envelopes) {
+        if (!matches(envelopes)) {
+            throw new IllegalArgumentException("Envelopes do not match plan " + Arrays.toString(keys));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "UnwrapPlan" + Arrays.toString(keys);
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.cyfko.typeindex;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options controlling {@link TypeKeyRegistry#warmUp(WarmUpOptions)}.
+ *
+ * <p>
+ * Warm-up always initializes the generated provider and memoizes the key of every registered
+ * class. Optionally, it also brings registered classes to a given {@linkplain ClassPreloading
+ * preloading level}, spreading the work over {@link #executor()}.
+ * </p>
+ *
+ * <pre>{@code
+ * WarmUpReport report = TypeKeyRegistry.warmUp(WarmUpOptions.defaults()
+ *         .withPreloading(WarmUpOptions.ClassPreloading.INITIALIZE)
+ *         .withVirtualThreads());
+ * }</pre>
+ *
+ * @param preloading Level to which registered classes are brought; never {@code null}.
+ * @param executor   Executor running one preloading task per registered class; never {@code null}.
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public record WarmUpOptions(ClassPreloading preloading, Executor executor) {
+
+    /**
+     * How far registered classes are taken during warm-up.
+     */
+    public enum ClassPreloading {
+        /** Leave registered classes alone. */
+        NONE,
+        /** Load registered classes, without linking or initializing them. */
+        LOAD,
+        /** Load and link (verify, prepare) registered classes, without running static initializers. */
+        LINK,
+        /** Load, link and initialize registered classes, running their static initializers. */
+        INITIALIZE
+    }
+
+    public WarmUpOptions {
+        Objects.requireNonNull(preloading, "preloading cannot be null");
+        Objects.requireNonNull(executor, "executor cannot be null");
+    }
+
+    /**
+     * Returns options that initialize the provider only, with preloading tasks (if enabled later)
+     * running on the {@linkplain ForkJoinPool#commonPool() common fork-join pool}.
+     *
+     * @return Default warm-up options.
+     */
+    public static WarmUpOptions defaults() {
+        return new WarmUpOptions(ClassPreloading.NONE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param preloading Level to which registered classes are brought; must not be {@code null}.
+     * @return A copy of these options with the given preloading level.
+     */
+    public WarmUpOptions withPreloading(ClassPreloading preloading) {
+        return new WarmUpOptions(preloading, executor);
+    }
+
+    /**
+     * @param executor Executor running the preloading tasks; must not be {@code null}.
+     * @return A copy of these options with the given executor.
+     */
+    public WarmUpOptions withExecutor(Executor executor) {
+        return new WarmUpOptions(preloading, executor);
+    }
+
+    /**
+     * Runs each preloading task on its own virtual thread. Suited to class loaders that block on
+     * I/O, such as loaders reading from remote or compressed archives.
+     *
+     * @return A copy of these options using virtual threads.
+     */
+    public WarmUpOptions withVirtualThreads() {
+        return withExecutor(task -> Thread.ofVirtual().name("typeindex-warmup").start(task));
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.cyfko.typeindex;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of {@link TypeKeyRegistry#warmUp(WarmUpOptions)}, with the time spent in each phase.
+ *
+ * @param providerInitialization Time spent loading and initializing the generated provider
+ *                               (near zero if it was already initialized).
+ * @param keyIndexing            Time spent memoizing the key of every registered class.
+ * @param classPreloading        Wall time spent bringing registered classes to the requested
+ *                               preloading level ({@link Duration#ZERO} if preloading was disabled).
+ * @param registeredTypes        Number of registered classes.
+ * @param failures               Classes that failed to load, link or initialize, by registry key;
+ *                               never {@code null}.
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public record WarmUpReport(
+        Duration providerInitialization,
+        Duration keyIndexing,
+        Duration classPreloading,
+        int registeredTypes,
+        Map<String, Throwable> failures
+) {
+
+    public WarmUpReport {
+        failures = Map.copyOf(failures);
+    }
+
+    /** @return Total time spent warming up. */
+    public Duration total() {
+        return providerInitialization.plus(keyIndexing).plus(classPreloading);
+    }
+
+    /** @return {@code true} if every registered class reached the requested preloading level. */
+    public boolean succeeded() {
+        return failures.isEmpty();
+    }
+}
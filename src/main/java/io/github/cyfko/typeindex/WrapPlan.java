@@ -0,0 +1,127 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.model.EnvelopeBatch;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Type keys of declared parameter types, derived once, for wrapping many argument arrays of the
+ * same method.
+ *
+ * <p>
+ * {@link TypeKeyRegistry#wrap(Object[])} looks up the key of every argument's class on every
+ * call. A plan derives the key of each declared parameter type when built; an argument whose
+ * class is exactly the declared type (or its wrapper, for primitive parameters) gets that key
+ * without a lookup. Other arguments, such as subclasses of the declared type, are keyed by their
+ * runtime class, so the envelopes are always those {@code wrap} would produce.
+ * </p>
+ *
+ * <pre>{@code
+ * WrapPlan plan = TypeKeyRegistry.wrapPlan(method.getParameterTypes()); // once per method
+ * List<ParamEnvelope> envelopes = plan.wrap(args);                        // per call
+ * }</pre>
+ *
+ * <p>
+ * Plans are immutable and thread-safe. They are not cached by the registry: keep one per method.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ * @see UnwrapPlan
+ */
+public final class WrapPlan {
+
+    /** Class an argument must have to use the key of its slot: the declared type, boxed. */
+    private final Class<?>[] types;
+    private final String[] keys;
+
+    private WrapPlan(Class<?>[] types, String[] keys) {
+        this.types = types;
+        this.keys = keys;
+    }
+
+    /**
+     * Derives the key of every declared parameter type.
+     *
+     * @throws IllegalArgumentException If a parameter type is {@code void}.
+     */
+    static WrapPlan of(Class<?>[] parameterTypes) {
+        Class<?>[] types = new Class<?>[parameterTypes.length];
+        String[] keys = new String[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = Objects.requireNonNull(parameterTypes[i], "parameter types cannot be null");
+            if (type == void.class) {
+                throw new IllegalArgumentException("void is not a parameter type (slot " + i + ")");
+            }
+            types[i] = MethodType.methodType(type).wrap().returnType();
+            keys[i] = TypeKeyRegistry.keyOf(types[i]);
+        }
+        return new WrapPlan(types, keys);
+    }
+
+    /** @return The number of parameters of this signature. */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Wraps arguments into {@link ParamEnvelope} instances, as {@link TypeKeyRegistry#wrap(Object[])}
+     * does.
+     *
+     * @param params Arguments, one per declared parameter; may contain {@code null} elements.
+     * @return A list of {@link ParamEnvelope} preserving parameter types and values.
+     * @throws IllegalArgumentException If the number of arguments differs from {@link #size()}.
+     */
+    public List<ParamEnvelope> wrap(Object[] params) {
+        checkSize(params);
+        List<ParamEnvelope> list = new ArrayList<>(params.length);
+        for (int i = 0; i < params.length; i++) {
+            list.add(new ParamEnvelope(keyOf(i, params[i]), params[i]));
+        }
+        return list;
+    }
+
+    /**
+     * Wraps arguments into a reusable {@link EnvelopeBatch}, as
+     * {@link TypeKeyRegistry#wrap(Object[], EnvelopeBatch)} does.
+     *
+     * @param params Arguments, one per declared parameter; may contain {@code null} elements.
+     * @param batch  Batch receiving the arguments, cleared first; must not be {@code null}.
+     * @return {@code batch}, holding one entry per argument.
+     * @throws IllegalArgumentException If the number of arguments differs from {@link #size()}.
+     */
+    public EnvelopeBatch wrap(Object[] params, EnvelopeBatch batch) {
+        Objects.requireNonNull(batch, "batch cannot be null");
+        checkSize(params);
+        batch.clear();
+        batch.ensureCapacity(params.length);
+        for (int i = 0; i < params.length; i++) {
+            batch.add(keyOf(i, params[i]), params[i]);
+        }
+        return batch;
+    }
+
+    private String keyOf(int slot, Object param) {
+        if (param == null) {
+            return TypeKeyRegistry.NULL_KEY;
+        }
+        Class<?> type = param.getClass();
+        return type == types[slot] ? keys[slot] : TypeKeyRegistry.keyOf(type);
+    }
+
+    private void checkSize(Object[] params) {
+        if (params.length != keys.length) {
+            throw new IllegalArgumentException("Expected " + keys.length + " arguments, got " + params.length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WrapPlan" + Arrays.toString(keys);
+    }
+}
@@ -0,0 +1,410 @@
+package io.github.cyfko.typeindex.codec;
+
+import io.github.cyfko.typeindex.TypeKeyRegistry;
+import io.github.cyfko.typeindex.model.EnvelopeBatch;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding of envelope sequences, as produced by {@link TypeKeyRegistry#wrap(Object[])}
+ * or {@link TypeKeyRegistry#wrap(Object[], EnvelopeBatch)}.
+ *
+ * <p>
+ * An encoded sequence is a format version byte and the number of envelopes, followed by each
+ * envelope as a tag and, unless it is the {@code "null"} envelope, its value:
+ * </p>
+ * <ul>
+ *   <li>the {@code "null"} envelope and envelopes of strings, primitives and boxed primitives
+ *       (under their primitive or class name key) have dedicated tags, their values being
+ *       written in place: zigzag varints for integral types, fixed-size IEEE 754 bits for
+ *       floating-point types, length-prefixed UTF-8 for strings;</li>
+ *   <li>any other type key is written once per sequence, in full, the following envelopes of
+ *       the same key referring to it by its position in a per-sequence dictionary. Their values
+ *       are written by the {@link ValueCodec} registered for the class the key resolves to
+ *       through {@link TypeKeyRegistry#resolve(String)}.</li>
+ * </ul>
+ * <p>
+ * Decoding never loads a class named by its input: a key read from the input must be the
+ * {@linkplain TypeKeyRegistry#keyOf(Class) key} or the name of a class with a registered value
+ * codec, or a key or alias of the generated registry. Any other key is rejected before a class
+ * is loaded, so untrusted input cannot trigger the initialization of arbitrary classes.
+ * </p>
+ * <p>
+ * Integers are written as {@linkplain Varints varints}, so a typical envelope of a registered type
+ * costs one tag byte plus its value.
+ * </p>
+ *
+ * <pre>{@code
+ * EnvelopeCodec codec = EnvelopeCodec.defaults()
+ *         .withValueCodec(UUID.class, ValueCodec.of(
+ *                 (out, id) -> out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()),
+ *                 in -> new UUID(in.getLong(), in.getLong())));
+ *
+ * ByteBuffer bytes = codec.encode(TypeKeyRegistry.wrap(args));
+ * Object[] params = TypeKeyRegistry.unwrap(codec.decode(bytes), (value, type) -> value);
+ * }</pre>
+ *
+ * <p>
+ * Codecs are immutable and thread-safe, as long as their value codecs are.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class EnvelopeCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final String NULL_KEY = "null";
+
+    private static final int TAG_NULL = 0;
+
+    /** Type keys with a dedicated tag, the tag being the index in this array. */
+    private static final String[] BUILTIN_KEYS = {
+            NULL_KEY,
+            "java.lang.String",
+            "java.lang.Integer", "int",
+            "java.lang.Long", "long",
+            "java.lang.Boolean", "boolean",
+            "java.lang.Double", "double",
+            "java.lang.Float", "float",
+            "java.lang.Short", "short",
+            "java.lang.Byte", "byte",
+            "java.lang.Character", "char"
+    };
+
+    private static final Class<?>[] BUILTIN_TYPES = {
+            null,
+            String.class,
+            Integer.class, Integer.class,
+            Long.class, Long.class,
+            Boolean.class, Boolean.class,
+            Double.class, Double.class,
+            Float.class, Float.class,
+            Short.class, Short.class,
+            Byte.class, Byte.class,
+            Character.class, Character.class
+    };
+
+    private static final ValueCodec<?>[] BUILTIN_CODECS;
+
+    private static final Map<String, Integer> BUILTIN_TAGS = new HashMap<>();
+
+    static {
+        ValueCodec<String> string = ValueCodec.of(Varints::writeString, Varints::readString);
+        ValueCodec<Integer> integer = ValueCodec.of(Varints::writeInt, Varints::readInt);
+        ValueCodec<Long> longInteger = ValueCodec.of(Varints::writeLong, Varints::readLong);
+        ValueCodec<Boolean> bool = ValueCodec.of((out, value) -> out.put((byte) (value ? 1 : 0)), in -> switch (in.get()) {
+            case 0 -> false;
+            case 1 -> true;
+            default -> throw new IllegalArgumentException("Malformed boolean");
+        });
+        ValueCodec<Double> doubleFloat = ValueCodec.of(ByteBuffer::putDouble, ByteBuffer::getDouble);
+        ValueCodec<Float> singleFloat = ValueCodec.of(ByteBuffer::putFloat, ByteBuffer::getFloat);
+        ValueCodec<Short> shortInteger = ValueCodec.of((out, value) -> Varints.writeInt(out, value),
+                in -> (short) Varints.readInt(in));
+        ValueCodec<Byte> singleByte = ValueCodec.of(ByteBuffer::put, ByteBuffer::get);
+        ValueCodec<Character> character = ValueCodec.of((out, value) -> Varints.writeUnsignedInt(out, value),
+                in -> (char) Varints.readUnsignedInt(in));
+
+        BUILTIN_CODECS = new ValueCodec<?>[]{
+                null,
+                string,
+                integer, integer,
+                longInteger, longInteger,
+                bool, bool,
+                doubleFloat, doubleFloat,
+                singleFloat, singleFloat,
+                shortInteger, shortInteger,
+                singleByte, singleByte,
+                character, character
+        };
+        for (int tag = 0; tag < BUILTIN_KEYS.length; tag++) {
+            BUILTIN_TAGS.put(BUILTIN_KEYS[tag], tag);
+        }
+    }
+
+    /** Tag of an envelope introducing a dictionary key, written in full after the tag. */
+    private static final int TAG_NEW_KEY = BUILTIN_KEYS.length;
+
+    /** Tag of an envelope whose key is dictionary entry {@code tag - TAG_KEY_REF}. */
+    private static final int TAG_KEY_REF = TAG_NEW_KEY + 1;
+
+    private static final EnvelopeCodec DEFAULTS = new EnvelopeCodec(Map.of());
+
+    private final Map<Class<?>, ValueCodec<?>> valueCodecs;
+
+    /** Value codecs by the key and by the name of their class, the keys decoding accepts without a lookup. */
+    private final Map<String, ValueCodec<?>> decodersByKey;
+
+    private EnvelopeCodec(Map<Class<?>, ValueCodec<?>> valueCodecs) {
+        this.valueCodecs = valueCodecs;
+        Map<String, ValueCodec<?>> decoders = new HashMap<>();
+        valueCodecs.forEach((type, codec) -> {
+            decoders.put(type.getName(), codec);
+            decoders.put(TypeKeyRegistry.keyOf(type), codec);
+        });
+        this.decodersByKey = Map.copyOf(decoders);
+    }
+
+    /**
+     * Returns a codec handling the {@code "null"} envelope, strings, primitives and boxed
+     * primitives only.
+     *
+     * @return The default codec.
+     */
+    public static EnvelopeCodec defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param type  Class whose values {@code codec} writes, as resolved from their type key;
+     *              must not be {@code null}.
+     * @param codec Codec of the values of {@code type}; must not be {@code null}.
+     * @param <T>   Type of the values.
+     * @return A copy of this codec also handling values of {@code type}, replacing any codec
+     *         previously registered for it.
+     */
+    public <T> EnvelopeCodec withValueCodec(Class<T> type, ValueCodec<T> codec) {
+        Objects.requireNonNull(type, "type cannot be null");
+        Objects.requireNonNull(codec, "codec cannot be null");
+        Map<Class<?>, ValueCodec<?>> codecs = new HashMap<>(valueCodecs);
+        codecs.put(type, codec);
+        return new EnvelopeCodec(Map.copyOf(codecs));
+    }
+
+    /**
+     * Encodes envelopes into a new heap buffer, sized as needed.
+     *
+     * @param envelopes Envelopes to encode; must not be {@code null}.
+     * @return A buffer holding the encoded envelopes, from position {@code 0} to its limit.
+     * @throws IllegalArgumentException If an envelope cannot be encoded; see {@link #encode(List, ByteBuffer)}.
+     */
+    public ByteBuffer encode(List<ParamEnvelope> envelopes) {
+        for (int capacity = 16 + 16 * envelopes.size(); ; capacity *= 2) {
+            ByteBuffer out = ByteBuffer.allocate(capacity);
+            try {
+                encode(envelopes, out);
+                return out.flip();
+            } catch (BufferOverflowException e) {
+                // Retry with a larger buffer
+            }
+        }
+    }
+
+    /**
+     * Encodes envelopes at the position of {@code out}, advancing it.
+     *
+     * @param envelopes Envelopes to encode; must not be {@code null}.
+     * @param out       Destination buffer; must not be {@code null}.
+     * @throws BufferOverflowException  If {@code out} is too small; its position is then left unchanged.
+     * @throws IllegalArgumentException If a type key other than {@code "null"} has a {@code null} value,
+     *                                  or if no value codec is registered for the class it resolves to.
+     * @throws IllegalStateException    If a type key cannot be resolved.
+     */
+    public void encode(List<ParamEnvelope> envelopes, ByteBuffer out) {
+        int start = out.position();
+        try {
+            Encoder encoder = new Encoder(out, envelopes.size());
+            for (ParamEnvelope envelope : envelopes) {
+                encoder.write(envelope.typeKey(), envelope.value());
+            }
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Encodes the envelopes of a batch at the position of {@code out}, advancing it, without
+     * creating envelope instances.
+     *
+     * @param batch Envelopes to encode; must not be {@code null}.
+     * @param out   Destination buffer; must not be {@code null}.
+     * @throws BufferOverflowException  If {@code out} is too small; its position is then left unchanged.
+     * @throws IllegalArgumentException If an envelope cannot be encoded; see {@link #encode(List, ByteBuffer)}.
+     * @throws IllegalStateException    If a type key cannot be resolved.
+     */
+    public void encode(EnvelopeBatch batch, ByteBuffer out) {
+        int start = out.position();
+        try {
+            Encoder encoder = new Encoder(out, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                encoder.write(batch.typeKey(i), batch.value(i));
+            }
+        } catch (BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes envelopes at the position of {@code in}, advancing it past them.
+     *
+     * @param in Source buffer; must not be {@code null}.
+     * @return The decoded envelopes, in order.
+     * @throws java.nio.BufferUnderflowException If {@code in} ends before the last envelope.
+     * @throws IllegalArgumentException          If {@code in} does not hold encoded envelopes, or if no
+     *                                           value codec is registered for the class a key resolves to.
+     */
+    public List<ParamEnvelope> decode(ByteBuffer in) {
+        Decoder decoder = new Decoder(in);
+        List<ParamEnvelope> envelopes = new ArrayList<>(decoder.count);
+        for (int i = 0; i < decoder.count; i++) {
+            decoder.next();
+            envelopes.add(new ParamEnvelope(decoder.typeKey, decoder.value));
+        }
+        return envelopes;
+    }
+
+    /**
+     * Decodes envelopes at the position of {@code in} into a batch, advancing the buffer past them.
+     *
+     * @param in    Source buffer; must not be {@code null}.
+     * @param batch Batch receiving the envelopes, cleared first; must not be {@code null}.
+     * @return {@code batch}.
+     * @throws java.nio.BufferUnderflowException If {@code in} ends before the last envelope.
+     * @throws IllegalArgumentException          If {@code in} does not hold encoded envelopes; see
+     *                                           {@link #decode(ByteBuffer)}.
+     */
+    public EnvelopeBatch decode(ByteBuffer in, EnvelopeBatch batch) {
+        Objects.requireNonNull(batch, "batch cannot be null");
+        Decoder decoder = new Decoder(in);
+        batch.clear();
+        batch.ensureCapacity(decoder.count);
+        for (int i = 0; i < decoder.count; i++) {
+            decoder.next();
+            batch.add(decoder.typeKey, decoder.value);
+        }
+        return batch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueCodec<Object> valueCodec(String typeKey) {
+        Class<?> type = TypeKeyRegistry.resolve(typeKey);
+        ValueCodec<?> codec = valueCodecs.get(type);
+        if (codec == null) {
+            throw new IllegalArgumentException("No value codec registered for " + type.getName()
+                    + " (type key '" + typeKey + "')");
+        }
+        return (ValueCodec<Object>) codec;
+    }
+
+    /**
+     * Finds the value codec of a key read from the input, without resolving keys of classes
+     * that have none: the classpath tier of {@link TypeKeyRegistry#resolve(String)} would load
+     * and initialize any class the input names.
+     */
+    @SuppressWarnings("unchecked")
+    private ValueCodec<Object> decoder(String typeKey) {
+        ValueCodec<?> codec = decodersByKey.get(typeKey);
+        if (codec == null) {
+            // Registered keys and aliases
+            Class<?> type = TypeKeyRegistry.getRegistryProvider().lookup(typeKey);
+            codec = type == null ? null : valueCodecs.get(type);
+        }
+        if (codec == null) {
+            throw new IllegalArgumentException("No value codec registered for type key '" + typeKey + "'");
+        }
+        return (ValueCodec<Object>) codec;
+    }
+
+    /** Writes one sequence, holding its key dictionary. */
+    private final class Encoder {
+        private final ByteBuffer out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<ValueCodec<Object>> codecs = new ArrayList<>();
+
+        Encoder(ByteBuffer out, int count) {
+            this.out = out;
+            out.put(FORMAT_VERSION);
+            Varints.writeUnsignedInt(out, count);
+        }
+
+        @SuppressWarnings("unchecked")
+        void write(String typeKey, Object value) {
+            Integer builtin = BUILTIN_TAGS.get(typeKey);
+            if (builtin != null && builtin == TAG_NULL) {
+                out.put((byte) TAG_NULL);
+                return;
+            }
+            if (value == null) {
+                throw new IllegalArgumentException("Envelope of type key '" + typeKey + "' has a null value; "
+                        + "null values are only allowed with the '" + NULL_KEY + "' type key");
+            }
+            if (builtin != null && BUILTIN_TYPES[builtin].isInstance(value)) {
+                out.put(builtin.byteValue());
+                ((ValueCodec<Object>) BUILTIN_CODECS[builtin]).write(out, value);
+                return;
+            }
+
+            Integer entry = dictionary.get(typeKey);
+            if (entry == null) {
+                ValueCodec<Object> codec = valueCodec(typeKey);
+                dictionary.put(typeKey, codecs.size());
+                codecs.add(codec);
+                Varints.writeUnsignedInt(out, TAG_NEW_KEY);
+                Varints.writeString(out, typeKey);
+                codec.write(out, value);
+            } else {
+                Varints.writeUnsignedInt(out, TAG_KEY_REF + entry);
+                codecs.get(entry).write(out, value);
+            }
+        }
+    }
+
+    /** Reads one sequence, envelope by envelope, holding its key dictionary. */
+    private final class Decoder {
+        private final ByteBuffer in;
+        private final int count;
+        private final List<String> keys = new ArrayList<>();
+        private final List<ValueCodec<Object>> codecs = new ArrayList<>();
+
+        String typeKey;
+        Object value;
+
+        Decoder(ByteBuffer in) {
+            this.in = in;
+            byte version = in.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported envelope format version " + version);
+            }
+            count = Varints.readUnsignedInt(in);
+            // Every envelope takes at least one byte
+            if (count < 0 || count > in.remaining()) {
+                throw new IllegalArgumentException("Malformed envelopes: count " + Integer.toUnsignedString(count)
+                        + " exceeds the " + in.remaining() + " remaining bytes");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void next() {
+            int tag = Varints.readUnsignedInt(in);
+            if (tag == TAG_NULL) {
+                typeKey = NULL_KEY;
+                value = null;
+            } else if (tag > 0 && tag < TAG_NEW_KEY) {
+                typeKey = BUILTIN_KEYS[tag];
+                value = BUILTIN_CODECS[tag].read(in);
+            } else if (tag == TAG_NEW_KEY) {
+                typeKey = Varints.readString(in);
+                ValueCodec<Object> codec = decoder(typeKey);
+                keys.add(typeKey);
+                codecs.add(codec);
+                value = codec.read(in);
+            } else if (tag > TAG_NEW_KEY && tag - TAG_KEY_REF < keys.size()) {
+                typeKey = keys.get(tag - TAG_KEY_REF);
+                value = codecs.get(tag - TAG_KEY_REF).read(in);
+            } else {
+                throw new IllegalArgumentException("Malformed envelopes: unknown tag " + Integer.toUnsignedString(tag));
+            }
+        }
+    }
+}
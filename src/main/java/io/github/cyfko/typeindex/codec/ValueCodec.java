@@ -0,0 +1,65 @@
+package io.github.cyfko.typeindex.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Binary encoding of the values of one type, plugged into an {@link EnvelopeCodec}.
+ *
+ * <p>
+ * A codec is selected by the class its envelope's type key resolves to, so it never has to
+ * write type information itself. It must read back exactly the bytes it wrote; {@link Varints}
+ * provides compact encodings for integers and strings.
+ * </p>
+ *
+ * @param <T> Type of the encoded values.
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Writes a value at the position of {@code out}, advancing it.
+     *
+     * @param out   Destination buffer.
+     * @param value Value to write; never {@code null}.
+     * @throws java.nio.BufferOverflowException If {@code out} is too small.
+     */
+    void write(ByteBuffer out, T value);
+
+    /**
+     * Reads a value at the position of {@code in}, advancing it.
+     *
+     * @param in Source buffer.
+     * @return The value read.
+     * @throws java.nio.BufferUnderflowException If {@code in} ends before the value.
+     * @throws IllegalArgumentException          If the bytes read do not encode a value.
+     */
+    T read(ByteBuffer in);
+
+    /**
+     * Returns a codec made of the given functions.
+     *
+     * @param writer Writes a value to a buffer; must not be {@code null}.
+     * @param reader Reads a value from a buffer; must not be {@code null}.
+     * @param <T>    Type of the encoded values.
+     * @return A codec delegating to {@code writer} and {@code reader}.
+     */
+    static <T> ValueCodec<T> of(BiConsumer<ByteBuffer, T> writer, Function<ByteBuffer, T> reader) {
+        Objects.requireNonNull(writer, "writer cannot be null");
+        Objects.requireNonNull(reader, "reader cannot be null");
+        return new ValueCodec<>() {
+            @Override
+            public void write(ByteBuffer out, T value) {
+                writer.accept(out, value);
+            }
+
+            @Override
+            public T read(ByteBuffer in) {
+                return reader.apply(in);
+            }
+        };
+    }
+}
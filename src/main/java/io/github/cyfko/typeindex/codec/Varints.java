@@ -0,0 +1,181 @@
+package io.github.cyfko.typeindex.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Variable-length integer and string encodings used by {@link EnvelopeCodec}, available to
+ * {@link ValueCodec} implementations.
+ *
+ * <p>
+ * Integers are written 7 bits per byte, least significant group first, the high bit of each
+ * byte telling whether another one follows: values below 128 take a single byte. Signed values
+ * are zigzag-encoded first, so that small negative values stay short too. Strings are written
+ * as their UTF-8 length followed by their UTF-8 bytes.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class Varints {
+
+    private Varints() {
+        // Utility class; not instantiable.
+    }
+
+    /**
+     * Writes a non-negative {@code int}, or any {@code int} as unsigned, in 1 to 5 bytes.
+     *
+     * @param out   Destination buffer.
+     * @param value Value to write.
+     */
+    public static void writeUnsignedInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Reads an {@code int} written by {@link #writeUnsignedInt(ByteBuffer, int)}.
+     *
+     * @param in Source buffer.
+     * @return The value read.
+     * @throws IllegalArgumentException If the value does not fit in 5 bytes.
+     */
+    public static int readUnsignedInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint: more than 5 bytes");
+    }
+
+    /**
+     * Writes a non-negative {@code long}, or any {@code long} as unsigned, in 1 to 10 bytes.
+     *
+     * @param out   Destination buffer.
+     * @param value Value to write.
+     */
+    public static void writeUnsignedLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Reads a {@code long} written by {@link #writeUnsignedLong(ByteBuffer, long)}.
+     *
+     * @param in Source buffer.
+     * @return The value read.
+     * @throws IllegalArgumentException If the value does not fit in 10 bytes.
+     */
+    public static long readUnsignedLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint: more than 10 bytes");
+    }
+
+    /**
+     * Writes a signed {@code int}, zigzag-encoded, in 1 to 5 bytes.
+     *
+     * @param out   Destination buffer.
+     * @param value Value to write.
+     */
+    public static void writeInt(ByteBuffer out, int value) {
+        writeUnsignedInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads an {@code int} written by {@link #writeInt(ByteBuffer, int)}.
+     *
+     * @param in Source buffer.
+     * @return The value read.
+     */
+    public static int readInt(ByteBuffer in) {
+        int value = readUnsignedInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a signed {@code long}, zigzag-encoded, in 1 to 10 bytes.
+     *
+     * @param out   Destination buffer.
+     * @param value Value to write.
+     */
+    public static void writeLong(ByteBuffer out, long value) {
+        writeUnsignedLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads a {@code long} written by {@link #writeLong(ByteBuffer, long)}.
+     *
+     * @param in Source buffer.
+     * @return The value read.
+     */
+    public static long readLong(ByteBuffer in) {
+        long value = readUnsignedLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes. ASCII strings are
+     * copied without an intermediate array.
+     *
+     * @param out   Destination buffer.
+     * @param value String to write; must not be {@code null}.
+     */
+    public static void writeString(ByteBuffer out, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeUnsignedInt(out, bytes.length);
+                out.put(bytes);
+                return;
+            }
+        }
+        writeUnsignedInt(out, length);
+        for (int i = 0; i < length; i++) {
+            out.put((byte) value.charAt(i));
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(ByteBuffer, String)}.
+     *
+     * @param in Source buffer.
+     * @return The string read.
+     * @throws IllegalArgumentException If the length exceeds the remaining bytes.
+     */
+    public static String readString(ByteBuffer in) {
+        int length = readUnsignedInt(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Malformed string: length " + Integer.toUnsignedString(length)
+                    + " exceeds the " + in.remaining() + " remaining bytes");
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.cyfko.typeindex.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Mutable, columnar sequence of parameter envelopes: type keys and values are stored in two
+ * parallel arrays instead of one {@link ParamEnvelope} per parameter.
+ *
+ * <p>
+ * A batch is meant to be reused across calls: {@link #clear()} keeps its arrays, so that once
+ * they have grown to the largest parameter count seen, wrapping and unwrapping parameters
+ * through {@link io.github.cyfko.typeindex.TypeKeyRegistry#wrap(Object[], EnvelopeBatch)} and
+ * {@link io.github.cyfko.typeindex.TypeKeyRegistry#unwrap(EnvelopeBatch, java.util.function.BiFunction)}
+ * allocates nothing but the unwrapped array. Callers needing envelopes can still get a
+ * {@link #asList()} view.
+ * </p>
+ *
+ * <p>
+ * Batches are not thread-safe; use one per thread, or per call.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class EnvelopeBatch {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private String[] typeKeys;
+    private Object[] values;
+    private int size;
+
+    /** Creates an empty batch. */
+    public EnvelopeBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch sized for {@code capacity} parameters.
+     *
+     * @param capacity Initial capacity; must not be negative.
+     * @throws IllegalArgumentException If {@code capacity} is negative.
+     */
+    public EnvelopeBatch(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative: " + capacity);
+        }
+        this.typeKeys = new String[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Appends a parameter.
+     *
+     * @param typeKey Logical type key of the parameter, {@code "null"} for a {@code null} value;
+     *                must not be {@code null}.
+     * @param value   Raw value; may be {@code null}.
+     * @throws NullPointerException If {@code typeKey} is {@code null}.
+     */
+    public void add(String typeKey, Object value) {
+        Objects.requireNonNull(typeKey, "typeKey cannot be null");
+        if (size == typeKeys.length) {
+            grow(size + 1);
+        }
+        typeKeys[size] = typeKey;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Ensures the batch can hold {@code capacity} parameters without growing.
+     *
+     * @param capacity Minimum capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > typeKeys.length) {
+            grow(capacity);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, typeKeys.length + (typeKeys.length >> 1) + 1);
+        typeKeys = Arrays.copyOf(typeKeys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Empties the batch, keeping its capacity. Stored values are released so that they can be
+     * garbage collected.
+     */
+    public void clear() {
+        Arrays.fill(typeKeys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    /** @return The number of parameters in the batch. */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the batch holds no parameter. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index Parameter position.
+     * @return The type key of the parameter at {@code index}.
+     * @throws IndexOutOfBoundsException If {@code index} is out of range.
+     */
+    public String typeKey(int index) {
+        Objects.checkIndex(index, size);
+        return typeKeys[index];
+    }
+
+    /**
+     * @param index Parameter position.
+     * @return The raw value of the parameter at {@code index}; may be {@code null}.
+     * @throws IndexOutOfBoundsException If {@code index} is out of range.
+     */
+    public Object value(int index) {
+        Objects.checkIndex(index, size);
+        return values[index];
+    }
+
+    /**
+     * Returns a read-only view of the batch as envelopes. The view reflects later changes
+     * to the batch, and creates an envelope on each {@code get}.
+     *
+     * @return A {@link List} of {@link ParamEnvelope} backed by this batch.
+     */
+    public List<ParamEnvelope> asList() {
+        return new EnvelopeView();
+    }
+
+    private final class EnvelopeView extends AbstractList<ParamEnvelope> implements RandomAccess {
+
+        @Override
+        public ParamEnvelope get(int index) {
+            return new ParamEnvelope(typeKey(index), values[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -2,15 +2,24 @@ package io.github.cyfko.typeindex.processor;
 
 import com.google.auto.service.AutoService;
 import io.github.cyfko.typeindex.TypeKey;
+import io.github.cyfko.typeindex.TypeKind;
+import io.github.cyfko.typeindex.providers.MappedRegistryProvider;
+import io.github.cyfko.typeindex.providers.PerfectHash;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.regex.Pattern;
 
 /**
@@ -22,38 +31,151 @@ import java.util.regex.Pattern;
  *     <li>that @TypeKey is used only on classes</li>
  *     <li>that keys contain only allowed characters: alphanumeric, '.', '-', '#', '_'</li>
  *     <li>that keys are globally unique</li>
+ *     <li>that type IDs, when given, are in range and globally unique</li>
+ *     <li>that aliases follow the rules of keys, and are unique across keys and aliases</li>
  * </ul>
- * At the end of processing, a class named
- * {@code io.github.cyfko.typeindex.providers.RegistryProviderImpl}
- * is generated containing a static, immutable registry.
+ * At the end of processing, a provider class is generated, named
+ * {@code io.github.cyfko.typeindex.providers.RegistryProviderImpl} unless
+ * {@code -Atypeindex.provider=<fully qualified name>} says otherwise, and
+ * registered in {@code META-INF/services} so that the providers of several
+ * modules can be merged at runtime. It contains a static, immutable registry and a
+ * {@code lookup(String)} method: a string {@code switch} for small registries,
+ * or a minimal perfect hash over the keys (see {@link PerfectHash}) beyond
+ * {@code -Atypeindex.switchLimit} entries (128 by default). With
+ * {@code -Atypeindex.classLoading=lazy}, the registry stores binary class names
+ * and loads each class on its first lookup instead of resolving every class
+ * literal when the provider initializes. With {@code -Atypeindex.storage=binary},
+ * the registry is written to a binary index under {@code META-INF/typeindex} and
+ * the provider reads it in place (see {@link MappedRegistryProvider}).
+ * Providers also record the superclasses and interfaces of every registered type,
+ * from which they build a {@link io.github.cyfko.typeindex.providers.SubtypeIndex}, and the
+ * package and kind of every registered type, from which they build a
+ * {@link io.github.cyfko.typeindex.providers.KeyIndex}.
+ * <p>
+ * The processor is an aggregating processor for Gradle incremental compilation:
+ * generated files list every annotated type as originating element, and their
+ * content only depends on the set of registered types, sorted by key.
+ * <p>
+ * Generated files are streamed to the filer row by row, so that the processor's footprint
+ * does not grow with the size of the source it writes. With {@code -Atypeindex.stats}, the
+ * time spent in each round and in generation is reported as notes.
  * <p>
  * Compilation will fail if any validation errors are detected.
  */
 @AutoService(Processor.class)
 @SupportedAnnotationTypes("io.github.cyfko.typeindex.TypeKey")
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
+@SupportedOptions({
+        TypeIndexProcessor.OPTION_SWITCH_LIMIT,
+        TypeIndexProcessor.OPTION_CLASS_LOADING,
+        TypeIndexProcessor.OPTION_PROVIDER,
+        TypeIndexProcessor.OPTION_STORAGE,
+        TypeIndexProcessor.OPTION_STATS
+})
 public final class TypeIndexProcessor extends AbstractProcessor {
 
     private static final Pattern VALID_KEY_PATTERN =
             Pattern.compile("^[a-zA-Z0-9.\\-#_]+$");
 
-    private final Map<String, TypeElementInfo> entries = new LinkedHashMap<>();
+    /**
+     * Maximum number of entries for which {@code lookup(String)} is generated as a string
+     * {@code switch} rather than a perfect hash. Each case costs about 30 bytes of bytecode,
+     * and HotSpot refuses to compile methods above 8000 bytes, so larger switches would stay
+     * interpreted.
+     */
+    static final String OPTION_SWITCH_LIMIT = "typeindex.switchLimit";
+
+    private static final int DEFAULT_SWITCH_LIMIT = 128;
+
+    /**
+     * Number of rows per holder class in providers of registries above this size. Every row
+     * costs a few constants and a few bytes of initializer code, so one class could hold at most
+     * a few thousand rows before hitting the 64KB method and constant pool limits. Registries
+     * above this size always use the perfect hash, whatever {@link #OPTION_SWITCH_LIMIT} says.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Maximum number of chars of a packed string constant. The class file format caps constants
+     * at 65535 bytes of modified UTF-8, where a char takes up to 3 bytes.
+     */
+    private static final int MAX_PACKED_LENGTH = 20_000;
+
+    /**
+     * How the generated provider references registered classes: {@code eager} (default) emits
+     * class literals, resolved as soon as the provider initializes; {@code lazy} emits binary
+     * names, each class being loaded on its first lookup.
+     */
+    static final String OPTION_CLASS_LOADING = "typeindex.classLoading";
+
+    /**
+     * Fully qualified name of the generated provider. Each module of an application should
+     * set a distinct one; the default name is only unique as long as a single module uses
+     * {@code @TypeKey}.
+     */
+    static final String OPTION_PROVIDER = "typeindex.provider";
+
+    /**
+     * Where the registry is stored: {@code source} (default) generates it as Java tables;
+     * {@code binary} writes it to {@code META-INF/typeindex/<provider>.idx}, read in place at
+     * runtime, which keeps very large registries out of the heap and out of class initializers.
+     * Binary storage always loads classes lazily.
+     */
+    static final String OPTION_STORAGE = "typeindex.storage";
+
+    /**
+     * Reports, as notes, the number of elements validated and the time spent in each round, and
+     * the time spent writing the generated files. Any value but {@code false} enables it.
+     */
+    static final String OPTION_STATS = "typeindex.stats";
+
+    private static final String INDEX_DIRECTORY = "META-INF/typeindex/";
+
+    private static final String DEFAULT_PROVIDER = "io.github.cyfko.typeindex.providers.RegistryProviderImpl";
+
+    private static final String SERVICE_FILE = "META-INF/services/io.github.cyfko.typeindex.providers.RegistryProvider";
+
+    /**
+     * Entries sorted by key, so that generated files only depend on the set of annotated types and
+     * not on the order the compiler discovers them in: identical inputs give byte-identical
+     * outputs, which build caches rely on.
+     */
+    private final Map<String, TypeElementInfo> entries = new TreeMap<>();
+    private final Map<Integer, TypeElementInfo> entriesById = new HashMap<>();
+    /** Keys by alias, sorted by alias for the same reason as {@link #entries}. */
+    private final Map<String, String> aliases = new TreeMap<>();
     private boolean hasErrors = false;
     private boolean hasProcessedAnnotations = false;
+    private int round = 0;
 
     private static class TypeElementInfo {
         final String qualifiedName;
+        final String binaryName;
+        final int id;
         final Element element;
+        /** Binary names of the type, its superclasses and interfaces, but {@code Object}. */
+        final Set<String> supertypes;
+        /** Qualified name of the package of the type, {@code ""} for the unnamed package. */
+        final String packageName;
+        final TypeKind kind;
 
-        TypeElementInfo(String qualifiedName, Element element) {
+        TypeElementInfo(String qualifiedName, String binaryName, int id, Element element, Set<String> supertypes,
+                        String packageName, TypeKind kind) {
             this.qualifiedName = qualifiedName;
+            this.binaryName = binaryName;
+            this.id = id;
             this.element = element;
+            this.supertypes = supertypes;
+            this.packageName = packageName;
+            this.kind = kind;
         }
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
         Messager log = processingEnv.getMessager();
+        long start = System.nanoTime();
+        round++;
 
         Set<? extends Element> annotatedElements = env.getElementsAnnotatedWith(TypeKey.class);
 
@@ -113,10 +235,73 @@ public final class TypeIndexProcessor extends AbstractProcessor {
                 continue;
             }
 
-            entries.put(key, new TypeElementInfo(
+            // Check for keys already used as aliases
+            if (aliases.containsKey(key)) {
+                TypeElementInfo existing = entries.get(aliases.get(key));
+                log.printMessage(Diagnostic.Kind.ERROR, "Duplicate @TypeKey value '" + key + "' found on "
+                        + type.getQualifiedName() + ". Already used as an alias by " + existing.qualifiedName, element);
+                log.printMessage(Diagnostic.Kind.ERROR,
+                        "First usage of @TypeKey alias \"" + key + "\"",
+                        existing.element);
+
+                hasErrors = true;
+                continue;
+            }
+
+            // Validate the type ID, if any
+            int id = annotation.id();
+            if (id != TypeKey.NO_ID && (id < 0 || id > TypeKey.MAX_ID)) {
+                log.printMessage(Diagnostic.Kind.ERROR,
+                        "@TypeKey id " + id + " is out of range. Ids must be between 0 and " + TypeKey.MAX_ID,
+                        element);
+                hasErrors = true;
+                continue;
+            }
+
+            // Check for duplicate type IDs
+            if (id != TypeKey.NO_ID && entriesById.containsKey(id)) {
+                TypeElementInfo existing = entriesById.get(id);
+                log.printMessage(Diagnostic.Kind.ERROR, "Duplicate @TypeKey id " + id + " found on "
+                        + type.getQualifiedName() + ". Already used by " + existing.qualifiedName, element);
+                log.printMessage(Diagnostic.Kind.ERROR,
+                        "First usage of @TypeKey id " + id,
+                        existing.element);
+
+                hasErrors = true;
+                continue;
+            }
+
+            if (!validAliases(type, key, annotation.aliases())) {
+                hasErrors = true;
+                continue;
+            }
+
+            TypeElementInfo info = new TypeElementInfo(
                     type.getQualifiedName().toString(),
-                    element
-            ));
+                    processingEnv.getElementUtils().getBinaryName(type).toString(),
+                    id,
+                    element,
+                    supertypesOf(type),
+                    processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString(),
+                    switch (type.getKind()) {
+                        case RECORD -> TypeKind.RECORD;
+                        case ENUM -> TypeKind.ENUM;
+                        default -> TypeKind.CLASS;
+                    }
+            );
+            entries.put(key, info);
+            if (id != TypeKey.NO_ID) {
+                entriesById.put(id, info);
+            }
+            for (String alias : annotation.aliases()) {
+                aliases.put(alias, key);
+            }
+        }
+
+        if (statsEnabled()) {
+            log.printMessage(Diagnostic.Kind.NOTE, "TypeIndex round " + round + ": validated "
+                    + annotatedElements.size() + " elements in " + millisSince(start) + " ms ("
+                    + entries.size() + " entries so far)");
         }
 
         if (env.processingOver()) {
@@ -138,19 +323,114 @@ public final class TypeIndexProcessor extends AbstractProcessor {
         return true;
     }
 
+    /**
+     * Validates the aliases of a type like keys: not blank, made of allowed characters, and
+     * unique across keys and aliases, including the type's own.
+     *
+     * @return {@code false} after reporting the first invalid alias.
+     */
+    private boolean validAliases(TypeElement type, String key, String[] typeAliases) {
+        Messager log = processingEnv.getMessager();
+        Set<String> seen = new HashSet<>();
+        for (String alias : typeAliases) {
+            if (alias == null || alias.isBlank()) {
+                log.printMessage(Diagnostic.Kind.ERROR, "@TypeKey alias cannot be blank", type);
+                return false;
+            }
+
+            if (!VALID_KEY_PATTERN.matcher(alias).matches()) {
+                log.printMessage(Diagnostic.Kind.ERROR,
+                        "@TypeKey alias '" + alias + "' contains invalid characters. " +
+                                "Only alphanumeric characters and '.', '-', '#', '_' are allowed",
+                        type);
+                return false;
+            }
+
+            if (alias.equals(key) || !seen.add(alias)) {
+                log.printMessage(Diagnostic.Kind.ERROR,
+                        "Duplicate @TypeKey alias '" + alias + "' on " + type.getQualifiedName(), type);
+                return false;
+            }
+
+            // Key of the type already using the alias, as its key or as one of its aliases
+            String owner = entries.containsKey(alias) ? alias : aliases.get(alias);
+            if (owner != null) {
+                TypeElementInfo existing = entries.get(owner);
+                boolean usedAsKey = owner.equals(alias);
+                log.printMessage(Diagnostic.Kind.ERROR, "Duplicate @TypeKey alias '" + alias + "' found on "
+                        + type.getQualifiedName() + ". Already used as " + (usedAsKey ? "a key" : "an alias")
+                        + " by " + existing.qualifiedName, type);
+                log.printMessage(Diagnostic.Kind.ERROR,
+                        usedAsKey ? "First usage of @TypeKey(\"" + alias + "\")" : "First usage of @TypeKey alias \"" + alias + "\"",
+                        existing.element);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Collects the binary names of a type and of its supertypes, but {@code Object}. */
+    private Set<String> supertypesOf(TypeElement type) {
+        Set<String> names = new HashSet<>();
+        Deque<TypeElement> pending = new ArrayDeque<>(List.of(type));
+        while (!pending.isEmpty()) {
+            TypeElement next = pending.pop();
+            String name = processingEnv.getElementUtils().getBinaryName(next).toString();
+            if (!name.equals("java.lang.Object") && names.add(name)) {
+                for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(next.asType())) {
+                    if (processingEnv.getTypeUtils().asElement(supertype) instanceof TypeElement element) {
+                        pending.push(element);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
     private void writeProvider() {
         Messager log = processingEnv.getMessager();
+        long start = System.nanoTime();
+
+        String provider = providerName();
+        if (provider == null) {
+            return;
+        }
+
+        // Every annotated type contributes to every generated file, as declared to Gradle in
+        // META-INF/gradle/incremental.annotation.processors ("aggregating").
+        Element[] originatingElements = entries.values().stream()
+                .map(info -> info.element)
+                .toArray(Element[]::new);
 
         try {
-            JavaFileObject file = processingEnv.getFiler()
-                    .createSourceFile("io.github.cyfko.typeindex.providers.RegistryProviderImpl");
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(provider, originatingElements);
 
-            try (Writer writer = file.openWriter()) {
-                writeRegistryClass(writer);
+            if (binaryStorage()) {
+                String index = INDEX_DIRECTORY + provider + ".idx";
+                writeIndex(index, originatingElements);
+                try (Writer writer = new BufferedWriter(file.openWriter())) {
+                    writeMappedClass(writer, provider, index);
+                }
+            } else {
+                try (Writer writer = new BufferedWriter(file.openWriter())) {
+                    writeRegistryClass(writer, provider);
+                }
+            }
+
+            FileObject service = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE, originatingElements);
+
+            try (Writer writer = service.openWriter()) {
+                writer.write(provider + "\n");
             }
 
             log.printMessage(Diagnostic.Kind.NOTE,
-                    "Generated RegistryProviderImpl with " + entries.size() + " entries");
+                    "Generated " + provider.substring(provider.lastIndexOf('.') + 1)
+                            + " with " + entries.size() + " entries");
+            if (statsEnabled()) {
+                log.printMessage(Diagnostic.Kind.NOTE,
+                        "TypeIndex generation: wrote " + provider + " in " + millisSince(start) + " ms");
+            }
 
         } catch (IOException e) {
             log.printMessage(Diagnostic.Kind.ERROR,
@@ -158,48 +438,755 @@ public final class TypeIndexProcessor extends AbstractProcessor {
         }
     }
 
-    private void writeRegistryClass(Writer out) throws IOException {
-        out.write("""
-                package io.github.cyfko.typeindex.providers;
+    /** @return The validated provider name, or {@code null} after reporting an invalid one. */
+    private String providerName() {
+        String name = processingEnv.getOptions().getOrDefault(OPTION_PROVIDER, DEFAULT_PROVIDER).trim();
+        if (!SourceVersion.isName(name) || name.indexOf('.') < 0) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Invalid value '" + name + "' for -A" + OPTION_PROVIDER
+                            + " (expected a fully qualified class name outside the default package)");
+            return null;
+        }
+        return name;
+    }
 
-                import java.util.Map;
+    private void writeIndex(String index, Element[] originatingElements) throws IOException {
+        List<String> keys = new ArrayList<>(entries.keySet());
+        List<String> binaryNames = new ArrayList<>(keys.size());
+        List<Set<String>> supertypes = new ArrayList<>(keys.size());
+        List<TypeKind> kinds = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            binaryNames.add(entries.get(key).binaryName);
+            supertypes.add(entries.get(key).supertypes);
+            kinds.add(entries.get(key).kind);
+        }
+
+        FileObject resource = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", index, originatingElements);
+        try (OutputStream out = resource.openOutputStream()) {
+            MappedRegistryProvider.write(out, keys, binaryNames, supertypes, kinds, aliases);
+        }
+    }
+
+    /** Writes a provider reading the registry from the binary index written by {@link #writeIndex}. */
+    private void writeMappedClass(Writer out, String provider, String index) throws IOException {
+        int dot = provider.lastIndexOf('.');
+        String simpleName = provider.substring(dot + 1);
+
+        boolean withIds = !entriesById.isEmpty();
+
+        out.write("package " + provider.substring(0, dot) + ";\n\n");
+        out.write("import io.github.cyfko.typeindex.providers.MappedRegistryProvider;\n");
+        if (withIds) {
+            out.write("import io.github.cyfko.typeindex.providers.RegistryTables;\n");
+            out.write("import java.util.Map;\n");
+        }
+        out.write("""
                 import javax.annotation.processing.Generated;
 
                 @Generated("io.github.cyfko.typeindex.processor.TypeIndexProcessor")
-                public final class RegistryProviderImpl implements RegistryProvider {
+                public final class %s extends MappedRegistryProvider {
+
+                    public %s() {
+                        super(%s.class.getClassLoader(), %s);
+                    }
+                """.formatted(simpleName, simpleName, simpleName, quote(index)));
+        if (withIds) {
+            out.write("\n");
+            writeTypeIds(out);
+        }
+        out.write("}\n");
+    }
+
+    private void writeRegistryClass(Writer out, String provider) throws IOException {
+        boolean lazy = lazyClassLoading();
+        int dot = provider.lastIndexOf('.');
+        String simpleName = provider.substring(dot + 1);
+
+        // Rows: the (key, class) pairs indexed by the generated tables. With a perfect hash,
+        // row i holds the key of slot i, and keys colliding on hashCode come last. Aliases get
+        // rows of their own, holding the class of their key, so that they resolve in the same
+        // single probe; a switch lists them next to their key instead.
+        boolean chunked = entries.size() > CHUNK_SIZE;
+        List<String> keys = new ArrayList<>(entries.keySet());
+        List<String> rows = keys;
+        PerfectHash table = null;
+        if (!entries.isEmpty() && (chunked || entries.size() > switchLimit())) {
+            rows = new ArrayList<>(keys);
+            rows.addAll(aliases.keySet());
+            table = PerfectHash.build(rows);
+            String[] ordered = new String[rows.size()];
+            int collisions = table.size();
+            for (int i = 0; i < rows.size(); i++) {
+                int slot = table.slotOf(i);
+                ordered[slot >= 0 ? slot : collisions++] = rows.get(i);
+            }
+            rows = Arrays.asList(ordered);
+        }
+        boolean withAliasRows = rows.size() > keys.size();
+
+        List<String> imports = new ArrayList<>();
+        if (table != null) {
+            imports.add("io.github.cyfko.typeindex.providers.PerfectHash");
+        }
+        if (lazy) {
+            imports.add("io.github.cyfko.typeindex.providers.LazyTypeTable");
+        }
+        imports.add("io.github.cyfko.typeindex.providers.RegistryProvider");
+        if (!entries.isEmpty()) {
+            imports.add("io.github.cyfko.typeindex.providers.KeyIndex");
+            imports.add("io.github.cyfko.typeindex.providers.RegistryTables");
+            imports.add("io.github.cyfko.typeindex.providers.SubtypeIndex");
+        }
+        if (lazy) {
+            imports.add("java.util.Collection");
+            imports.add("java.util.List");
+        }
+        imports.add("java.util.Map");
+        imports.add("javax.annotation.processing.Generated");
+
+        out.write("package " + provider.substring(0, dot) + ";\n\n");
+        for (String type : imports) {
+            out.write("import " + type + ";\n");
+        }
+        out.write("""
+
+                @Generated("io.github.cyfko.typeindex.processor.TypeIndexProcessor")
+                public final class %s implements RegistryProvider {
+
+                """.formatted(simpleName));
+
+        if (chunked) {
+            writeChunkedTables(out, rows, table, lazy, simpleName, withAliasRows);
+        } else if (lazy) {
+            writeLazyTables(out, keys, rows, simpleName, withAliasRows);
+        } else {
+            writeEagerTables(out, keys, rows, table != null);
+        }
 
-                    private static final Map<String, Class<?>> REGISTRY = Map.ofEntries(
+        writeAccessors(out, lazy, withAliasRows);
+        writeLookup(out, rows, table, lazy, !chunked);
+
+        if (!aliases.isEmpty()) {
+            out.write("\n");
+            writeAliases(out, withAliasRows ? rows : List.of());
+        }
+
+        if (!entriesById.isEmpty()) {
+            out.write("\n");
+            writeTypeIds(out);
+        }
+
+        if (!entries.isEmpty()) {
+            out.write("\n");
+            writeSortedKeys(out);
+            out.write("\n");
+            writeSubtypeIndex(out);
+            out.write("\n");
+            writeKeyIndex(out);
+        }
+
+        if (chunked) {
+            writeChunks(out, rows, table, lazy);
+        }
+
+        out.write("""
+                }
                 """);
+    }
+
+    /**
+     * Writes {@code getTypeIds()}, backed by a holder class building the map from packed
+     * constants on first call, whatever the number of IDs.
+     */
+    private void writeTypeIds(Writer out) throws IOException {
+        List<String> keys = new ArrayList<>(entriesById.size());
+        for (Map.Entry<String, TypeElementInfo> entry : entries.entrySet()) {
+            if (entry.getValue().id != TypeKey.NO_ID) {
+                keys.add(entry.getKey());
+            }
+        }
 
-        int i = 0;
-        int last = entries.size() - 1;
+        out.write("""
+                    @Override
+                    public Map<String, Integer> getTypeIds() {
+                        return TypeIds.BY_KEY;
+                    }
 
-        for (var entry : entries.entrySet()) {
-            String key = escapeJavaString(entry.getKey());
-            String className = entry.getValue().qualifiedName;
+                    private static final class TypeIds {
+                        static final Map<String, Integer> BY_KEY = load();
 
-            out.write("        Map.entry(\"" + key + "\", " + className + ".class)");
-            if (i++ != last) {
-                out.write(",");
+                        private static Map<String, Integer> load() {
+                            String[] keys = new String[%d];
+                            int[] ids = new int[%d];
+                """.formatted(keys.size(), keys.size()));
+        writePacked(out, "keys", 0, keys.size(), keys::get);
+        writePacked(out, "ids", 0, keys.size(), i -> Integer.toString(entries.get(keys.get(i)).id));
+        out.write("""
+                            return RegistryTables.ofIds(keys, ids);
+                        }
+                    }
+                """);
+    }
+
+    /**
+     * Writes {@code getAliases()}, backed by a holder class building the map from packed
+     * constants on first call. With a perfect hash, the holder also lists the rows of the
+     * aliases, which the registry views skip.
+     *
+     * @param rows Rows of the perfect hash tables, or an empty list for a {@code switch}.
+     */
+    private void writeAliases(Writer out, List<String> rows) throws IOException {
+        List<String> names = new ArrayList<>(aliases.keySet());
+        List<Integer> aliasRows = new ArrayList<>();
+        for (int row = 0; row < rows.size(); row++) {
+            if (aliases.containsKey(rows.get(row))) {
+                aliasRows.add(row);
             }
-            out.write("\n");
         }
 
         out.write("""
-                    );
+                    @Override
+                    public Map<String, String> getAliases() {
+                        return Aliases.KEYS_BY_ALIAS;
+                    }
+
+                    private static final class Aliases {
+                        static final Map<String, String> KEYS_BY_ALIAS = load();
+                """);
+        if (!aliasRows.isEmpty()) {
+            out.write("        static final int[] ROWS = rows();\n");
+        }
+        out.write("""
+
+                        private static Map<String, String> load() {
+                            String[] aliases = new String[%d];
+                            String[] keys = new String[%d];
+                """.formatted(names.size(), names.size()));
+        writePacked(out, "aliases", 0, names.size(), names::get);
+        writePacked(out, "keys", 0, names.size(), i -> aliases.get(names.get(i)));
+        out.write("""
+                            return RegistryTables.ofEntries(aliases, keys);
+                        }
+                """);
+        if (!aliasRows.isEmpty()) {
+            out.write("""
+
+                            private static int[] rows() {
+                                int[] rows = new int[%d];
+                    """.formatted(aliasRows.size()));
+            writePacked(out, "rows", 0, aliasRows.size(), i -> Integer.toString(aliasRows.get(i)));
+            out.write("""
+                                return rows;
+                            }
+                    """);
+        }
+        out.write("    }\n");
+    }
+
+    /**
+     * Writes a holder class unpacking, on first use, the registered keys in sorted order, which
+     * are the rows of the subtype and key indexes.
+     */
+    private void writeSortedKeys(Writer out) throws IOException {
+        List<String> keys = new ArrayList<>(entries.keySet());
+        out.write("""
+                    private static final class SortedKeys {
+                        static final String[] KEYS = load();
+
+                        private static String[] load() {
+                            String[] keys = new String[%d];
+                """.formatted(keys.size()));
+        writePacked(out, "keys", 0, keys.size(), keys::get);
+        out.write("""
+                            return keys;
+                        }
+                    }
+                """);
+    }
+
+    /**
+     * Writes {@code getKeyIndex()}, backed by a holder class unpacking, on first call, the
+     * packages of registered types and, by row, the package and kind of each type.
+     */
+    private void writeKeyIndex(Writer out) throws IOException {
+        List<String> keys = new ArrayList<>(entries.keySet());
+        Map<String, Integer> packageIndexes = new LinkedHashMap<>();
+        for (TypeElementInfo info : entries.values()) {
+            packageIndexes.putIfAbsent(info.packageName, packageIndexes.size());
+        }
+        List<String> packages = new ArrayList<>(packageIndexes.keySet());
 
+        out.write("""
                     @Override
-                    public Map<String, Class<?>> getRegistry() {
-                        return REGISTRY;
+                    public KeyIndex getKeyIndex() {
+                        return Keys.INDEX;
+                    }
+
+                    private static final class Keys {
+                        static final KeyIndex INDEX = load();
+
+                        private static KeyIndex load() {
+                            String[] packages = new String[%d];
+                            int[] packageOf = new int[%d];
+                            int[] kindOf = new int[%d];
+                """.formatted(packages.size(), keys.size(), keys.size()));
+        writePacked(out, "packages", 0, packages.size(), packages::get);
+        writePacked(out, "packageOf", 0, keys.size(),
+                i -> Integer.toString(packageIndexes.get(entries.get(keys.get(i)).packageName)));
+        writePacked(out, "kindOf", 0, keys.size(), i -> Integer.toString(entries.get(keys.get(i)).kind.ordinal()));
+        out.write("""
+                            return KeyIndex.of(SortedKeys.KEYS, packages, packageOf, kindOf);
+                        }
                     }
+                """);
+    }
+
+    /**
+     * Writes {@code getSubtypeIndex()}, backed by a holder class unpacking, on first call, the
+     * supertypes of registered types and, supertype after supertype, the rows of their registered
+     * subtypes. Rows follow the key order, and supertypes their binary name.
+     */
+    private void writeSubtypeIndex(Writer out) throws IOException {
+        List<String> keys = new ArrayList<>(entries.keySet());
+        Map<String, List<Integer>> rowsBySupertype = new TreeMap<>();
+        for (int row = 0; row < keys.size(); row++) {
+            for (String supertype : entries.get(keys.get(row)).supertypes) {
+                rowsBySupertype.computeIfAbsent(supertype, name -> new ArrayList<>()).add(row);
+            }
+        }
+        List<String> supertypes = new ArrayList<>(rowsBySupertype.keySet());
+        int[] offsets = new int[supertypes.size() + 1];
+        List<Integer> rows = new ArrayList<>();
+        for (int s = 0; s < supertypes.size(); s++) {
+            rows.addAll(rowsBySupertype.get(supertypes.get(s)));
+            offsets[s + 1] = rows.size();
+        }
+
+        out.write("""
+                    @Override
+                    public SubtypeIndex getSubtypeIndex() {
+                        return Subtypes.INDEX;
+                    }
+
+                    private static final class Subtypes {
+                        static final SubtypeIndex INDEX = load();
+
+                        private static SubtypeIndex load() {
+                            String[] supertypes = new String[%d];
+                            int[] offsets = new int[%d];
+                            int[] rows = new int[%d];
+                """.formatted(supertypes.size(), offsets.length, rows.size()));
+        writePacked(out, "supertypes", 0, supertypes.size(), supertypes::get);
+        writePacked(out, "offsets", 0, offsets.length, i -> Integer.toString(offsets[i]));
+        writePacked(out, "rows", 0, rows.size(), i -> Integer.toString(rows.get(i)));
+        out.write("""
+                            return SubtypeIndex.of(SortedKeys.KEYS, supertypes, offsets, rows);
+                        }
+                    }
+                """);
+    }
+
+    /**
+     * Writes the tables of a provider whose class literals are resolved when it initializes:
+     * the registry map, the class → key map and, for perfect hash lookups, the row tables.
+     */
+    private void writeEagerTables(Writer out, List<String> keys, List<String> rows, boolean withRowTables)
+            throws IOException {
+        RowWriter key = (writer, i) -> writeQuoted(writer, keys.get(i));
+        RowWriter type = (writer, i) -> writeClassLiteral(writer, keys.get(i));
+
+        out.write("    private static final Map<String, Class<?>> REGISTRY = Map.<String, Class<?>>ofEntries(\n");
+        writeEntries(out, keys.size(), key, type);
+
+        // Class -> key table backing keyOf(Class), so that the runtime does not have to invert
+        // the registry on first access.
+        out.write("    private static final Map<Class<?>, String> KEYS_BY_TYPE = Map.<Class<?>, String>ofEntries(\n");
+        writeEntries(out, keys.size(), type, key);
+
+        if (withRowTables) {
+            writeArray(out, "String[] KEYS", rows.size(), (writer, row) -> writeQuoted(writer, rows.get(row)));
+            writeArray(out, "Class<?>[] TYPES", rows.size(), (writer, row) -> writeClassLiteral(writer, rows.get(row)));
+        }
+    }
+
+    /**
+     * Writes the tables of a provider storing binary class names, each class being loaded
+     * on its first lookup through a {@link io.github.cyfko.typeindex.providers.LazyTypeTable}.
+     */
+    private void writeLazyTables(Writer out, List<String> keys, List<String> rows, String simpleName,
+                                 boolean withAliasRows) throws IOException {
+        writeArray(out, "String[] KEYS", rows.size(), (writer, row) -> writeQuoted(writer, rows.get(row)));
+
+        out.write("    private static final LazyTypeTable TYPES = new LazyTypeTable(" + simpleName + ".class, new String[] {\n");
+        writeRows(out, rows.size(), (writer, row) -> writeQuoted(writer, info(rows.get(row)).binaryName));
+        out.write("    });\n\n");
+
+        out.write("    private static final List<String> KEY_LIST = List.of(" + keyRows("KEYS", withAliasRows) + ");\n\n");
+
+        // Binary name -> key table backing keyOf(Class) without loading every registered class.
+        out.write("    private static final Map<String, String> KEYS_BY_TYPE_NAME = Map.<String, String>ofEntries(\n");
+        writeEntries(out, keys.size(),
+                (writer, i) -> writeQuoted(writer, entries.get(keys.get(i)).binaryName),
+                (writer, i) -> writeQuoted(writer, keys.get(i)));
+    }
+
+    /**
+     * @return An expression evaluating to the rows of {@code table} holding keys, that is
+     *         {@code table} itself unless some rows hold aliases.
+     */
+    private static String keyRows(String table, boolean withAliasRows) {
+        return withAliasRows ? "RegistryTables.withoutRows(" + table + ", Aliases.ROWS)" : table;
+    }
+
+    /**
+     * Writes the tables of a registry above {@link #CHUNK_SIZE} entries. The row arrays are
+     * filled by the holder classes written by {@link #writeChunks}, and the maps derived from
+     * them at runtime.
+     */
+    private void writeChunkedTables(Writer out, List<String> rows, PerfectHash table, boolean lazy,
+                                    String simpleName, boolean withAliasRows) throws IOException {
+        int buckets = table.displacements().length;
+
+        out.write("    private static final String[] KEYS = new String[" + rows.size() + "];\n\n");
+        if (lazy) {
+            out.write("    private static final String[] NAMES = new String[" + rows.size() + "];\n\n");
+        } else {
+            out.write("    private static final Class<?>[] TYPES = new Class<?>[" + rows.size() + "];\n\n");
+        }
+        out.write("    private static final int[] DISPLACEMENTS = new int[" + buckets + "];\n\n");
+
+        out.write("    static {\n");
+        for (int chunk = 0; chunk * CHUNK_SIZE < rows.size(); chunk++) {
+            out.write("        Chunk" + chunk + ".fill(KEYS, " + (lazy ? "NAMES" : "TYPES") + ", DISPLACEMENTS);\n");
+        }
+        out.write("    }\n\n");
+
+        if (lazy) {
+            out.write("    private static final LazyTypeTable TYPES = new LazyTypeTable(" + simpleName + ".class, NAMES);\n\n");
+            String keys = keyRows("KEYS", withAliasRows);
+            out.write("    private static final List<String> KEY_LIST = List.of(" + keys + ");\n\n");
+            out.write("    private static final Map<String, String> KEYS_BY_TYPE_NAME = RegistryTables.ofEntries("
+                    + keyRows("NAMES", withAliasRows) + ", " + keys + ");\n\n");
+        } else if (withAliasRows) {
+            // Row tables without the rows of aliases, only needed to build the maps
+            out.write("    private static final Map<String, Class<?>> REGISTRY = RegistryTables.ofEntries(\n"
+                    + "            " + keyRows("KEYS", true) + ", " + keyRows("TYPES", true) + ");\n\n");
+            out.write("    private static final Map<Class<?>, String> KEYS_BY_TYPE = RegistryTables.ofEntries(\n"
+                    + "            " + keyRows("TYPES", true) + ", " + keyRows("KEYS", true) + ");\n\n");
+        } else {
+            out.write("    private static final Map<String, Class<?>> REGISTRY = RegistryTables.ofEntries(KEYS, TYPES);\n\n");
+            out.write("    private static final Map<Class<?>, String> KEYS_BY_TYPE = RegistryTables.ofEntries(TYPES, KEYS);\n\n");
+        }
+    }
+
+    /**
+     * Writes one holder class per {@link #CHUNK_SIZE} rows, filling its rows and its share of
+     * the perfect hash displacements. Each holder has its own constant pool and a method small
+     * enough to stay below the class file limits. Keys, binary names and displacements are
+     * packed into string constants; only class literals need one instruction per row.
+     */
+    private void writeChunks(Writer out, List<String> rows, PerfectHash table, boolean lazy) throws IOException {
+        int[] displacements = table.displacements();
+        int chunks = (rows.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int bucketsPerChunk = (displacements.length + chunks - 1) / chunks;
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = chunk * CHUNK_SIZE;
+            List<String> keys = rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE));
+            int firstBucket = Math.min(displacements.length, chunk * bucketsPerChunk);
+            int lastBucket = Math.min(displacements.length, firstBucket + bucketsPerChunk);
+
+            out.write("""
+
+                        private static final class Chunk%d {
+                            static void fill(String[] keys, %s, int[] displacements) {
+                    """.formatted(chunk, lazy ? "String[] names" : "Class<?>[] types"));
+
+            writePacked(out, "keys", from, keys.size(), keys::get);
+            if (lazy) {
+                writePacked(out, "names", from, keys.size(), i -> info(keys.get(i)).binaryName);
+            } else {
+                for (int i = 0; i < keys.size(); i++) {
+                    out.write("            types[");
+                    out.write(Integer.toString(from + i));
+                    out.write("] = ");
+                    writeClassLiteral(out, keys.get(i));
+                    out.write(";\n");
                 }
+            }
+            if (firstBucket < lastBucket) {
+                writePacked(out, "displacements", firstBucket, lastBucket - firstBucket,
+                        i -> Integer.toString(displacements[firstBucket + i]));
+            }
+
+            out.write("""
+                            }
+                        }
+                    """);
+        }
+    }
+
+    /**
+     * Writes a {@code RegistryTables.unpack} call storing {@code count} values into {@code target}
+     * from {@code offset}, as comma-separated string constants each well below the 65535-byte
+     * limit of the class file format. Values are written as they come, without first joining them.
+     */
+    private void writePacked(Writer out, String target, int offset, int count,
+                             IntFunction<String> values) throws IOException {
+        out.write("            RegistryTables.unpack(" + target + ", " + offset + ",\n");
+        out.write("                    \"");
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            String value = values.apply(i);
+            if (i > 0) {
+                if (length + 1 + value.length() > MAX_PACKED_LENGTH) {
+                    out.write("\",\n                    \"");
+                    length = 0;
+                } else {
+                    out.write(',');
+                    length++;
+                }
+            }
+            out.write(escapeJavaString(value));
+            length += value.length();
+        }
+        out.write("\");\n");
+    }
+
+    /** Writes the registry accessors, backed by the tables written for the class loading mode. */
+    private void writeAccessors(Writer out, boolean lazy, boolean withAliasRows) throws IOException {
+        if (!lazy) {
+            out.write("""
+                        @Override
+                        public Map<String, Class<?>> getRegistry() {
+                            return REGISTRY;
+                        }
+
+                        @Override
+                        public String keyOf(Class<?> type) {
+                            return KEYS_BY_TYPE.get(type);
+                        }
+
+                    """);
+            return;
+        }
+
+        out.write("""
+                    @Override
+                    public Collection<String> keys() {
+                        return KEY_LIST;
+                    }
+
+                    @Override
+                    public Map<String, Class<?>> getRegistry() {
+                        return TYPES.toMap(%s);
+                    }
+
+                    @Override
+                    public String keyOf(Class<?> type) {
+                        String key = KEYS_BY_TYPE_NAME.get(type.getName());
+                        return key != null && lookup(key) == type ? key : null;
+                    }
+
+                """.formatted(withAliasRows ? "KEYS, Aliases.ROWS" : "KEYS"));
+    }
+
+    private void writeEntries(Writer out, int count, RowWriter key, RowWriter value) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.write("        Map.entry(");
+            key.write(out, i);
+            out.write(", ");
+            value.write(out, i);
+            out.write(i == count - 1 ? ")\n" : "),\n");
+        }
+        out.write("    );\n\n");
+    }
+
+    /**
+     * Writes the {@code lookup(String)} method: a string {@code switch} for registries
+     * up to {@link #OPTION_SWITCH_LIMIT} entries, a minimal perfect hash above.
+     */
+    private void writeLookup(Writer out, List<String> rows, PerfectHash table, boolean lazy,
+                             boolean inlineDisplacements) throws IOException {
+        if (entries.isEmpty()) {
+            out.write("""
+                        @Override
+                        public Class<?> lookup(String key) {
+                            return null;
+                        }
+                    """);
+        } else if (table == null) {
+            writeSwitchLookup(out, rows, lazy);
+        } else {
+            writePerfectHashLookup(out, table, rows.size(), lazy, inlineDisplacements);
+        }
+    }
+
+    /**
+     * Writes {@code lookup(String)} as a {@code switch} on the key. javac compiles it to a
+     * {@code hashCode()} lookupswitch followed by a single {@code equals}, returning class
+     * literals as constants, so the JIT can inline the whole method at hot call sites.
+     */
+    private void writeSwitchLookup(Writer out, List<String> rows, boolean lazy) throws IOException {
+        Map<String, List<String>> aliasesByKey = new HashMap<>();
+        aliases.forEach((alias, key) -> aliasesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(alias));
+
+        out.write("""
+                    @Override
+                    public Class<?> lookup(String key) {
+                        return switch (key) {
+                """);
+        for (int i = 0; i < rows.size(); i++) {
+            out.write("            case ");
+            writeQuoted(out, rows.get(i));
+            for (String alias : aliasesByKey.getOrDefault(rows.get(i), List.of())) {
+                out.write(", ");
+                writeQuoted(out, alias);
+            }
+            out.write(" -> ");
+            if (lazy) {
+                out.write("TYPES.get(" + i + ")");
+            } else {
+                writeClassLiteral(out, rows.get(i));
+            }
+            out.write(";\n");
+        }
+        out.write("""
+                            default -> null;
+                        };
+                    }
                 """);
     }
 
+    /**
+     * Writes the minimal perfect hash constants and the {@code lookup(String)} method probing
+     * the row tables with them. Rows past the table size hold keys colliding on hashCode,
+     * scanned linearly on a miss.
+     */
+    private void writePerfectHashLookup(Writer out, PerfectHash table, int rows, boolean lazy,
+                                        boolean inlineDisplacements) throws IOException {
+        out.write("    private static final long SEED = " + table.seed() + "L;\n\n");
+        out.write("    private static final int SLOTS = " + table.size() + ";\n\n");
+        if (inlineDisplacements) {
+            int[] displacements = table.displacements();
+            writeArray(out, "int[] DISPLACEMENTS", displacements.length,
+                    (writer, row) -> writer.write(Integer.toString(displacements[row])));
+        }
+
+        String type = lazy ? "TYPES.get(%s)" : "TYPES[%s]";
+        out.write("""
+                    @Override
+                    public Class<?> lookup(String key) {
+                        int slot = PerfectHash.slot(PerfectHash.hash(key, SEED), DISPLACEMENTS, SLOTS);
+                        if (KEYS[slot].equals(key)) {
+                            return %s;
+                        }
+                """.formatted(type.formatted("slot")));
+        if (table.size() < rows) {
+            out.write("""
+                            for (int i = SLOTS; i < KEYS.length; i++) {
+                                if (KEYS[i].equals(key)) {
+                                    return %s;
+                                }
+                            }
+                    """.formatted(type.formatted("i")));
+        }
+        out.write("""
+                        return null;
+                    }
+                """);
+    }
+
+    private boolean lazyClassLoading() {
+        String value = processingEnv.getOptions().getOrDefault(OPTION_CLASS_LOADING, "eager").trim();
+        if (!value.equals("eager") && !value.equals("lazy")) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Invalid value '" + value + "' for -A" + OPTION_CLASS_LOADING
+                            + " (expected 'eager' or 'lazy'); using 'eager'");
+        }
+        return value.equals("lazy");
+    }
+
+    private boolean binaryStorage() {
+        String value = processingEnv.getOptions().getOrDefault(OPTION_STORAGE, "source").trim();
+        if (!value.equals("source") && !value.equals("binary")) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Invalid value '" + value + "' for -A" + OPTION_STORAGE
+                            + " (expected 'source' or 'binary'); using 'source'");
+        }
+        return value.equals("binary");
+    }
+
+    private boolean statsEnabled() {
+        // A bare -Atypeindex.stats maps the option to null
+        Map<String, String> options = processingEnv.getOptions();
+        return options.containsKey(OPTION_STATS) && !"false".equalsIgnoreCase(String.valueOf(options.get(OPTION_STATS)).trim());
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private int switchLimit() {
+        String value = processingEnv.getOptions().get(OPTION_SWITCH_LIMIT);
+        if (value == null) {
+            return DEFAULT_SWITCH_LIMIT;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Invalid value '" + value + "' for -A" + OPTION_SWITCH_LIMIT
+                            + "; using " + DEFAULT_SWITCH_LIMIT);
+            return DEFAULT_SWITCH_LIMIT;
+        }
+    }
+
+    private String quote(String s) {
+        return "\"" + escapeJavaString(s) + "\"";
+    }
+
+    private void writeQuoted(Writer out, String s) throws IOException {
+        out.write('"');
+        out.write(escapeJavaString(s));
+        out.write('"');
+    }
+
+    private void writeClassLiteral(Writer out, String key) throws IOException {
+        out.write(info(key).qualifiedName);
+        out.write(".class");
+    }
+
+    /** @return The entry registered under a key or one of its aliases. */
+    private TypeElementInfo info(String key) {
+        return entries.get(aliases.getOrDefault(key, key));
+    }
+
+    /** Writes one value of a generated table, straight to the output. */
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Writer out, int row) throws IOException;
+    }
+
+    private void writeArray(Writer out, String declaration, int count, RowWriter values) throws IOException {
+        out.write("    private static final " + declaration + " = {\n");
+        writeRows(out, count, values);
+        out.write("    };\n\n");
+    }
+
+    private void writeRows(Writer out, int count, RowWriter values) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.write("        ");
+            values.write(out, i);
+            out.write(i == count - 1 ? "\n" : ",\n");
+        }
+    }
+
     /**
      * Escapes special characters in strings for Java source code.
      * While our validation restricts keys to safe characters, this provides
-     * defense in depth.
+     * defense in depth. Strings without special characters are returned as is.
      */
     private String escapeJavaString(String s) {
         return s.replace("\\", "\\\\")
@@ -0,0 +1,194 @@
+package io.github.cyfko.typeindex.providers;
+
+import io.github.cyfko.typeindex.TypeKind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registered keys in sorted order, partitioned by package and by {@link TypeKind}, for
+ * enumerating types by key namespace, package or kind without scanning the registry.
+ * <p>
+ * Keys sharing a prefix form a contiguous range of the sorted keys, found by two binary
+ * searches. Generated providers record the package and kind of every registered type at compile
+ * time; the lists of each package and kind are built once, when the index is.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and thread-safe. Queries return unmodifiable views and copy nothing.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class KeyIndex {
+
+    /** Index of a provider without registered types. */
+    public static final KeyIndex EMPTY = of(new String[0], new String[0], new int[0], new int[0]);
+
+    private static final TypeKind[] KINDS = TypeKind.values();
+
+    /** Registered keys, sorted. */
+    private final String[] keys;
+    private final List<String> keyList;
+
+    /** Package of the type of each key, as an index into {@code packages}. */
+    private final String[] packages;
+    private final int[] packageOf;
+    private final int[] kindOf;
+
+    private final Map<String, List<String>> keysByPackage;
+    private final Map<TypeKind, List<String>> keysByKind;
+
+    private KeyIndex(String[] keys, String[] packages, int[] packageOf, int[] kindOf) {
+        this.keys = keys;
+        this.keyList = List.of(keys);
+        this.packages = packages;
+        this.packageOf = packageOf;
+        this.kindOf = kindOf;
+
+        Map<String, List<String>> byPackage = new HashMap<>(packages.length * 4 / 3 + 1);
+        Map<TypeKind, List<String>> byKind = new EnumMap<>(TypeKind.class);
+        for (int row = 0; row < keys.length; row++) {
+            byPackage.computeIfAbsent(packages[packageOf[row]], name -> new ArrayList<>()).add(keys[row]);
+            byKind.computeIfAbsent(KINDS[kindOf[row]], kind -> new ArrayList<>()).add(keys[row]);
+        }
+        byPackage.replaceAll((name, list) -> List.copyOf(list));
+        byKind.replaceAll((kind, list) -> List.copyOf(list));
+        this.keysByPackage = byPackage;
+        this.keysByKind = byKind;
+    }
+
+    /**
+     * Builds an index from the tables of a generated provider. Arrays are used as is and must
+     * not be modified afterwards.
+     *
+     * @param keys      Registered keys, sorted by {@link String#compareTo(String)}.
+     * @param packages  Package names of the registered types; {@code ""} for the unnamed package.
+     * @param packageOf Index into {@code packages} of the package of the type of each key.
+     * @param kindOf    {@link TypeKind#ordinal() Ordinal} of the kind of the type of each key.
+     * @return The index.
+     */
+    public static KeyIndex of(String[] keys, String[] packages, int[] packageOf, int[] kindOf) {
+        return new KeyIndex(keys, packages, packageOf, kindOf);
+    }
+
+    /**
+     * Builds an index from already loaded classes, for providers that do not record packages
+     * and kinds at compile time.
+     *
+     * @param registry Registered classes, by key.
+     * @return The index.
+     */
+    public static KeyIndex of(Map<String, Class<?>> registry) {
+        Builder builder = new Builder();
+        registry.forEach((key, type) -> builder.add(key, type.getPackageName(), TypeKind.of(type)));
+        return builder.build();
+    }
+
+    /**
+     * Merges the indexes of several providers. A key present in several indexes, as happens when
+     * a module is on the class path twice, is kept once.
+     *
+     * @param indexes Indexes to merge.
+     * @return The merged index.
+     */
+    public static KeyIndex merge(Collection<KeyIndex> indexes) {
+        Builder builder = new Builder();
+        for (KeyIndex index : indexes) {
+            for (int row = 0; row < index.keys.length; row++) {
+                builder.add(index.keys[row], index.packages[index.packageOf[row]], KINDS[index.kindOf[row]]);
+            }
+        }
+        return builder.build();
+    }
+
+    /** @return Every registered key, sorted. */
+    public List<String> keys() {
+        return keyList;
+    }
+
+    /**
+     * @param prefix Key prefix, such as a namespace ending with {@code '.'}; must not be {@code null}.
+     * @return The registered keys starting with {@code prefix}, sorted.
+     */
+    public List<String> keysWithPrefix(String prefix) {
+        int from = lowerBound(prefix);
+        int to = from;
+        if (from < keys.length && keys[from].startsWith(prefix)) {
+            // Keys starting with the prefix sort before any greater key not starting with it
+            to = prefix.isEmpty() ? keys.length : upperBound(prefix, from);
+        }
+        return keyList.subList(from, to);
+    }
+
+    /**
+     * @param packageName Package name, {@code ""} for the unnamed package; subpackages are not included.
+     * @return The keys of the registered types of this package, sorted.
+     */
+    public List<String> keysInPackage(String packageName) {
+        return keysByPackage.getOrDefault(packageName, List.of());
+    }
+
+    /**
+     * @param kind Type kind; must not be {@code null}.
+     * @return The keys of the registered types of this kind, sorted.
+     */
+    public List<String> keysOfKind(TypeKind kind) {
+        return keysByKind.getOrDefault(kind, List.of());
+    }
+
+    /** @return The index of the first key not less than {@code key}. */
+    private int lowerBound(String key) {
+        int i = Arrays.binarySearch(keys, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** @return The index of the first key from {@code from} not starting with {@code prefix}. */
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Collects rows in any order and sorts them by key. */
+    private static final class Builder {
+        private final Map<String, String> packageByKey = new TreeMap<>();
+        private final Map<String, TypeKind> kindByKey = new HashMap<>();
+
+        void add(String key, String packageName, TypeKind kind) {
+            packageByKey.putIfAbsent(key, packageName);
+            kindByKey.putIfAbsent(key, kind);
+        }
+
+        KeyIndex build() {
+            String[] keys = packageByKey.keySet().toArray(new String[0]);
+            List<String> packages = new ArrayList<>();
+            Map<String, Integer> packageIndexes = new HashMap<>();
+            int[] packageOf = new int[keys.length];
+            int[] kindOf = new int[keys.length];
+            for (int row = 0; row < keys.length; row++) {
+                packageOf[row] = packageIndexes.computeIfAbsent(packageByKey.get(keys[row]), name -> {
+                    packages.add(name);
+                    return packages.size() - 1;
+                });
+                kindOf[row] = kindByKey.get(keys[row]).ordinal();
+            }
+            return new KeyIndex(keys, packages.toArray(new String[0]), packageOf, kindOf);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.cyfko.typeindex.providers;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Table of registered classes loaded one by one, on first lookup.
+ * <p>
+ * Used by providers generated with {@code -Atypeindex.classLoading=lazy}: instead of class
+ * literals, which the JVM resolves as soon as the provider initializes, the provider stores
+ * binary class names and asks this table for the {@link Class} of a slot when a key is hit.
+ * A service using a few dozen out of tens of thousands of registered types only loads those.
+ * </p>
+ *
+ * <p>
+ * Slots are filled without locking: threads racing on an empty slot both ask the class loader,
+ * which returns the same {@link Class} instance to each of them.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class LazyTypeTable {
+
+    private final ClassLoader loader;
+    private final String[] names;
+    private final AtomicReferenceArray<Class<?>> types;
+    private volatile Map<String, Class<?>> registry;
+
+    /**
+     * @param owner Generated provider class, whose class loader loads the registered classes.
+     * @param names Binary names of the registered classes, by slot.
+     */
+    public LazyTypeTable(Class<?> owner, String[] names) {
+        this.loader = owner.getClassLoader();
+        this.names = names;
+        this.types = new AtomicReferenceArray<>(names.length);
+    }
+
+    /**
+     * Returns the class of the given slot, loading it (without initializing it) on first access.
+     *
+     * @param slot Slot of the registered class.
+     * @return The registered class.
+     * @throws IllegalStateException If the registered class is no longer on the classpath.
+     */
+    public Class<?> get(int slot) {
+        Class<?> type = types.getAcquire(slot);
+        if (type == null) {
+            type = load(names[slot]);
+            types.setRelease(slot, type);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the registry as a map, loading every registered class the first time.
+     *
+     * @param keys Keys of the registered classes, by slot.
+     * @return Unmodifiable map of keys to classes, in slot order.
+     */
+    public Map<String, Class<?>> toMap(String[] keys) {
+        return toMap(keys, new int[0]);
+    }
+
+    /**
+     * Returns the registry as a map, loading every registered class the first time.
+     *
+     * @param keys      Keys of the registered classes, by slot.
+     * @param aliasRows Slots holding aliases rather than keys, in ascending order; left out of the map.
+     * @return Unmodifiable map of keys to classes, in slot order.
+     */
+    public Map<String, Class<?>> toMap(String[] keys, int[] aliasRows) {
+        Map<String, Class<?>> map = registry;
+        if (map == null) {
+            Map<String, Class<?>> loaded = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+            int alias = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (alias < aliasRows.length && aliasRows[alias] == slot) {
+                    alias++;
+                } else {
+                    loaded.put(keys[slot], get(slot));
+                }
+            }
+            registry = map = Collections.unmodifiableMap(loaded);
+        }
+        return map;
+    }
+
+    private Class<?> load(String name) {
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Registered type " + name + " is missing from the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package io.github.cyfko.typeindex.providers;
+
+import io.github.cyfko.typeindex.TypeKind;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry provider answering from a binary index instead of tables held on the heap.
+ * <p>
+ * Providers generated with {@code -Atypeindex.storage=binary} extend this class: the processor
+ * writes the registry to {@code META-INF/typeindex/<provider>.idx} and the provider only names
+ * that resource. The index is memory-mapped when it is a plain file. Jar entries may be compressed
+ * and cannot be mapped in place, so an index packaged in a jar is first copied to a temporary file,
+ * mapped, and the file deleted; only if no temporary file can be written is the index read into a
+ * single byte array on the heap. Keys are compared in place and classes loaded, without
+ * being initialized, on their first lookup, so that startup time and heap usage do not grow
+ * with the number of registered types.
+ * </p>
+ *
+ * <p>
+ * The index holds two minimal perfect hash tables (see {@link PerfectHash}), one over the keys
+ * and their aliases and one over the binary class names, followed by the rows:
+ * </p>
+ * <pre>
+ * int  magic, version, count, aliases
+ * key table:  long seed, int slots, int buckets, int[buckets] displacements, int[count + aliases] rows
+ * name table: long seed, int slots, int buckets, int[buckets] displacements, int[count] rows
+ * int[count + aliases] row offsets
+ * rows:       u2 key length, key (UTF-8), u2 name length, binary name (UTF-8)
+ *             then, for each alias, u2 alias length, alias (UTF-8), u2 key length, key (UTF-8)
+ * subtypes:   int supertypes, then for each supertype:
+ *             u2 name length, binary name (UTF-8), int subtypes, int[subtypes] rows
+ * u1[count]   kind of each row, as a {@link TypeKind} ordinal
+ * int         offset of the subtypes section
+ * </pre>
+ * <p>
+ * Rows are in key order, aliases last. The rows of each table are indexed by slot; rows colliding
+ * on {@code hashCode} come last and are scanned on a miss. Packages are not stored but derived
+ * from the binary names. All integers are big-endian.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public class MappedRegistryProvider implements RegistryProvider {
+
+    /** {@code "TIDX"}. */
+    private static final int MAGIC = 0x54494458;
+    private static final int VERSION = 4;
+
+    private final ClassLoader loader;
+    private final ByteBuffer index;
+    private final int count;
+    private final int aliases;
+
+    private final long keySeed;
+    private final int keySlots;
+    private final int keyBuckets;
+    private final int keyDisplacements;
+    private final int keyRows;
+
+    private final long nameSeed;
+    private final int nameSlots;
+    private final int nameBuckets;
+    private final int nameDisplacements;
+    private final int nameRows;
+
+    private final int rowOffsets;
+
+    /** Classes loaded so far, by key; grows with the keys actually used, not with the registry. */
+    private final Map<String, Class<?>> loaded = new ConcurrentHashMap<>();
+    private volatile Map<String, Class<?>> registry;
+    private volatile SubtypeIndex subtypeIndex;
+    private volatile KeyIndex keyIndex;
+    private volatile Map<String, String> aliasMap;
+
+    /**
+     * Opens a binary registry index.
+     *
+     * @param loader   Class loader holding the index and the registered classes.
+     * @param resource Resource name of the index.
+     * @throws IllegalStateException If the index is missing or invalid.
+     */
+    public MappedRegistryProvider(ClassLoader loader, String resource) {
+        this.loader = loader;
+        this.index = open(loader, resource);
+
+        if (index.limit() < 16 || index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IllegalStateException("Invalid registry index " + resource);
+        }
+        count = index.getInt(8);
+        aliases = index.getInt(12);
+
+        int at = 16;
+        keySeed = index.getLong(at);
+        keySlots = index.getInt(at + 8);
+        keyBuckets = index.getInt(at + 12);
+        keyDisplacements = at + 16;
+        keyRows = keyDisplacements + 4 * keyBuckets;
+
+        at = keyRows + 4 * (count + aliases);
+        nameSeed = index.getLong(at);
+        nameSlots = index.getInt(at + 8);
+        nameBuckets = index.getInt(at + 12);
+        nameDisplacements = at + 16;
+        nameRows = nameDisplacements + 4 * nameBuckets;
+
+        rowOffsets = nameRows + 4 * count;
+    }
+
+    private static ByteBuffer open(ClassLoader loader, String resource) {
+        URL url = loader.getResource(resource);
+        if (url == null) {
+            throw new IllegalStateException("Registry index " + resource + " is missing from the classpath");
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                try (FileChannel channel = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            // Jar entries may be compressed and cannot be mapped: map a copy instead.
+            ByteBuffer copy = mapCopy(url);
+            if (copy != null) {
+                return copy;
+            }
+            try (InputStream in = url.openStream()) {
+                return ByteBuffer.wrap(in.readAllBytes());
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Cannot read registry index " + resource, e);
+        }
+    }
+
+    /**
+     * Copies a resource to a temporary file and maps it. The mapping stays valid once the file is
+     * deleted, which happens right away where the platform allows it, on exit otherwise.
+     *
+     * @return The mapped copy, or {@code null} if no temporary file could be written.
+     */
+    private static ByteBuffer mapCopy(URL url) {
+        Path file;
+        try {
+            file = Files.createTempFile("typeindex-", ".idx");
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+        try {
+            try (InputStream in = url.openStream()) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } catch (IOException e) {
+            return null;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Mapped files cannot be deleted on Windows
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public Class<?> lookup(String key) {
+        Class<?> type = loaded.get(key);
+        if (type == null) {
+            int row = rowOf(key);
+            if (row < 0) {
+                return null;
+            }
+            // Alias rows name the key they stand for
+            type = row < count ? load(row) : lookup(readName(row));
+            loaded.putIfAbsent(key, type);
+        }
+        return type;
+    }
+
+    @Override
+    public String keyOf(Class<?> type) {
+        if (nameSlots == 0) {
+            return null;
+        }
+        String name = type.getName();
+        long hash = PerfectHash.hash(name, nameSeed);
+        int slot = PerfectHash.slot(hash, index.getInt(nameDisplacements + 4 * PerfectHash.bucket(hash, nameBuckets)), nameSlots);
+
+        for (int i = slot; i < count; i = (i == slot ? nameSlots : i + 1)) {
+            int row = index.getInt(nameRows + 4 * i);
+            if (name.equals(readName(row))) {
+                String key = readKey(row);
+                return lookup(key) == type ? key : null;
+            }
+        }
+        return null;
+    }
+
+    /** @return The registered keys, decoded from the index on access. */
+    @Override
+    public Collection<String> keys() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int row) {
+                Objects.checkIndex(row, count);
+                return readKey(row);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /** Builds the registry map on first call, loading every registered class. */
+    @Override
+    public Map<String, Class<?>> getRegistry() {
+        Map<String, Class<?>> map = registry;
+        if (map == null) {
+            Map<String, Class<?>> all = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int row = 0; row < count; row++) {
+                all.put(readKey(row), lookup(readKey(row)));
+            }
+            registry = map = Collections.unmodifiableMap(all);
+        }
+        return map;
+    }
+
+    /** Builds the alias map on first call, from the alias rows; loads no class. */
+    @Override
+    public Map<String, String> getAliases() {
+        Map<String, String> map = aliasMap;
+        if (map == null) {
+            Map<String, String> all = new LinkedHashMap<>(aliases * 4 / 3 + 1);
+            for (int row = count; row < count + aliases; row++) {
+                all.put(readKey(row), readName(row));
+            }
+            aliasMap = map = Collections.unmodifiableMap(all);
+        }
+        return map;
+    }
+
+    /** Builds the subtype index on first call, from the subtypes section; loads no class. */
+    @Override
+    public SubtypeIndex getSubtypeIndex() {
+        SubtypeIndex subtypes = subtypeIndex;
+        if (subtypes == null) {
+            String[] keys = new String[count];
+            for (int row = 0; row < count; row++) {
+                keys[row] = readKey(row);
+            }
+
+            // First pass: names and row counts; second pass: rows
+            int start = index.getInt(index.limit() - 4);
+            String[] supertypes = new String[index.getInt(start)];
+            int[] offsets = new int[supertypes.length + 1];
+            int at = start + 4;
+            for (int s = 0; s < supertypes.length; s++) {
+                supertypes[s] = readString(at);
+                at += 2 + (index.getShort(at) & 0xFFFF);
+                offsets[s + 1] = offsets[s] + index.getInt(at);
+                at += 4 + 4 * index.getInt(at);
+            }
+
+            int[] rows = new int[offsets[supertypes.length]];
+            at = start + 4;
+            for (int s = 0; s < supertypes.length; s++) {
+                at += 2 + (index.getShort(at) & 0xFFFF) + 4;
+                for (int i = offsets[s]; i < offsets[s + 1]; i++, at += 4) {
+                    rows[i] = index.getInt(at);
+                }
+            }
+            subtypeIndex = subtypes = SubtypeIndex.of(keys, supertypes, offsets, rows);
+        }
+        return subtypes;
+    }
+
+    /** Builds the key index on first call, from the rows and the kinds section; loads no class. */
+    @Override
+    public KeyIndex getKeyIndex() {
+        KeyIndex keys = keyIndex;
+        if (keys == null) {
+            // Rows follow the order keys were written in; the index wants them sorted
+            Integer[] order = new Integer[count];
+            String[] rowKeys = new String[count];
+            for (int row = 0; row < count; row++) {
+                order[row] = row;
+                rowKeys[row] = readKey(row);
+            }
+            Arrays.sort(order, Comparator.comparing(row -> rowKeys[row]));
+
+            int kinds = index.limit() - 4 - count;
+            String[] sorted = new String[count];
+            List<String> packages = new ArrayList<>();
+            Map<String, Integer> packageIndexes = new HashMap<>();
+            int[] packageOf = new int[count];
+            int[] kindOf = new int[count];
+            for (int i = 0; i < count; i++) {
+                int row = order[i];
+                sorted[i] = rowKeys[row];
+                String name = readName(row);
+                packageOf[i] = packageIndexes.computeIfAbsent(name.substring(0, Math.max(name.lastIndexOf('.'), 0)), p -> {
+                    packages.add(p);
+                    return packages.size() - 1;
+                });
+                kindOf[i] = index.get(kinds + row);
+            }
+            keyIndex = keys = KeyIndex.of(sorted, packages.toArray(new String[0]), packageOf, kindOf);
+        }
+        return keys;
+    }
+
+    /** @return The row of a key or alias, or {@code -1} if it is not registered. */
+    private int rowOf(String key) {
+        if (keySlots == 0) {
+            return -1;
+        }
+        long hash = PerfectHash.hash(key, keySeed);
+        int slot = PerfectHash.slot(hash, index.getInt(keyDisplacements + 4 * PerfectHash.bucket(hash, keyBuckets)), keySlots);
+        for (int i = slot; i < count + aliases; i = (i == slot ? keySlots : i + 1)) {
+            int row = index.getInt(keyRows + 4 * i);
+            if (keyEquals(row, key)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /** Compares a key with the one of a row without decoding it; registered keys are ASCII. */
+    private boolean keyEquals(int row, String key) {
+        int at = index.getInt(rowOffsets + 4 * row);
+        int length = index.getShort(at) & 0xFFFF;
+        if (length != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (index.get(at + 2 + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(int row) {
+        return readString(index.getInt(rowOffsets + 4 * row));
+    }
+
+    private String readName(int row) {
+        int at = index.getInt(rowOffsets + 4 * row);
+        return readString(at + 2 + (index.getShort(at) & 0xFFFF));
+    }
+
+    private String readString(int at) {
+        byte[] bytes = new byte[index.getShort(at) & 0xFFFF];
+        index.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Class<?> load(int row) {
+        String name = readName(row);
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Registered type " + name + " is missing from the classpath", e);
+        }
+    }
+
+    /**
+     * Writes a binary registry index, recording no supertypes and every class as a
+     * {@link TypeKind#CLASS}.
+     *
+     * @param out         Stream to write to; not closed.
+     * @param keys        Distinct registered keys, restricted to ASCII characters.
+     * @param binaryNames Binary names of the registered classes, in the order of {@code keys}.
+     * @throws IOException If writing fails.
+     */
+    public static void write(OutputStream out, List<String> keys, List<String> binaryNames) throws IOException {
+        write(out, keys, binaryNames, Collections.nCopies(keys.size(), Set.of()),
+                Collections.nCopies(keys.size(), TypeKind.CLASS), Map.of());
+    }
+
+    /**
+     * Writes a binary registry index, including the supertypes and kinds of the registered classes
+     * and the aliases of their keys.
+     *
+     * @param out         Stream to write to; not closed.
+     * @param keys        Distinct registered keys, restricted to ASCII characters.
+     * @param binaryNames Binary names of the registered classes, in the order of {@code keys}.
+     * @param supertypes  Binary names of the supertypes of each registered class (see
+     *                    {@link SubtypeIndex}), in the order of {@code keys}.
+     * @param kinds       Kinds of the registered classes, in the order of {@code keys}.
+     * @param aliases     Keys by alias; aliases are restricted to ASCII characters and distinct from keys.
+     * @throws IOException If writing fails.
+     */
+    public static void write(OutputStream out, List<String> keys, List<String> binaryNames,
+                             List<? extends Collection<String>> supertypes, List<TypeKind> kinds,
+                             Map<String, String> aliases) throws IOException {
+        int count = keys.size();
+
+        // Rows in key order, then one row per alias naming its key
+        List<String> rowKeys = new ArrayList<>(keys);
+        List<String> rowNames = new ArrayList<>(binaryNames);
+        aliases.forEach((alias, key) -> {
+            rowKeys.add(alias);
+            rowNames.add(key);
+        });
+        int rows = rowKeys.size();
+
+        PerfectHash keyTable = PerfectHash.build(rowKeys);
+        PerfectHash nameTable = PerfectHash.build(binaryNames);
+
+        byte[][] encodedKeys = encode(rowKeys);
+        byte[][] encodedNames = encode(rowNames);
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(count);
+        data.writeInt(rows - count);
+        writeTable(data, keyTable, rows);
+        writeTable(data, nameTable, count);
+
+        int offset = data.size() + 4 * rows;
+        for (int row = 0; row < rows; row++) {
+            data.writeInt(offset);
+            offset += 4 + encodedKeys[row].length + encodedNames[row].length;
+        }
+        for (int row = 0; row < rows; row++) {
+            data.writeShort(encodedKeys[row].length);
+            data.write(encodedKeys[row]);
+            data.writeShort(encodedNames[row].length);
+            data.write(encodedNames[row]);
+        }
+
+        Map<String, List<Integer>> rowsBySupertype = new TreeMap<>();
+        for (int row = 0; row < count; row++) {
+            for (String supertype : supertypes.get(row)) {
+                rowsBySupertype.computeIfAbsent(supertype, name -> new ArrayList<>()).add(row);
+            }
+        }
+        int subtypesOffset = data.size();
+        data.writeInt(rowsBySupertype.size());
+        byte[][] encodedSupertypes = encode(new ArrayList<>(rowsBySupertype.keySet()));
+        int s = 0;
+        for (List<Integer> subtypes : rowsBySupertype.values()) {
+            data.writeShort(encodedSupertypes[s].length);
+            data.write(encodedSupertypes[s++]);
+            data.writeInt(subtypes.size());
+            for (int row : subtypes) {
+                data.writeInt(row);
+            }
+        }
+        for (int row = 0; row < count; row++) {
+            data.writeByte(kinds.get(row).ordinal());
+        }
+        data.writeInt(subtypesOffset);
+        data.flush();
+    }
+
+    /** Writes a table over {@code rows} values, its rows by slot, values colliding on hashCode last. */
+    private static void writeTable(DataOutputStream data, PerfectHash table, int rows) throws IOException {
+        int[] displacements = table.displacements();
+        data.writeLong(table.seed());
+        data.writeInt(table.size());
+        data.writeInt(displacements.length);
+        for (int displacement : displacements) {
+            data.writeInt(displacement);
+        }
+
+        int[] rowsBySlot = new int[rows];
+        int collisions = table.size();
+        for (int row = 0; row < rows; row++) {
+            int slot = table.slotOf(row);
+            rowsBySlot[slot >= 0 ? slot : collisions++] = row;
+        }
+        for (int row : rowsBySlot) {
+            data.writeInt(row);
+        }
+    }
+
+    private static byte[][] encode(List<String> values) {
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            if (encoded[i].length > 0xFFFF) {
+                throw new UncheckedIOException(new IOException("Value too long for a registry index: " + values.get(i)));
+            }
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,242 @@
+package io.github.cyfko.typeindex.providers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Minimal perfect hash over a fixed set of string keys.
+ * <p>
+ * The table is built once by the annotation processor over all registered keys
+ * and emitted as constants into the generated provider. At runtime, the key's
+ * {@link String#hashCode()} (cached by the string after first use) is mixed with
+ * the table seed; the high half of the result selects a bucket whose displacement
+ * is mixed into the low half to obtain a slot in {@code [0, size)}. Every indexed
+ * key lands on a distinct slot, so a lookup costs one hash and one
+ * {@link String#equals(Object)} with no probing.
+ * </p>
+ *
+ * <p>
+ * Keys sharing a {@link String#hashCode()} cannot be told apart by any seed. Only
+ * the first of them is indexed; the others are reported as <em>collisions</em>
+ * ({@link #slotOf(int)} returns {@code -1}) and must be looked up elsewhere by
+ * the caller.
+ * </p>
+ *
+ * <p>
+ * The build uses the <em>hash, displace and compress</em> strategy: keys are
+ * grouped into buckets of about four keys, and buckets are placed largest first
+ * by searching for the smallest displacement that sends all their keys to free
+ * slots.
+ * </p>
+ *
+ * <p>
+ * Both the processor and the generated code rely on {@link #hash(String, long)}
+ * and {@link #slot(long, int[], int)}; changing either invalidates already
+ * generated providers.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class PerfectHash {
+
+    /** Average number of keys per bucket. */
+    private static final int KEYS_PER_BUCKET = 4;
+
+    /** Upper bound on displacement attempts per bucket before switching seeds. */
+    private static final int MAX_DISPLACEMENT = 1 << 22;
+
+    /** Number of global seeds tried before giving up. */
+    private static final int MAX_SEEDS = 64;
+
+    private final long seed;
+    private final int[] displacements;
+    private final int[] slots;
+    private final int size;
+
+    private PerfectHash(long seed, int[] displacements, int[] slots, int size) {
+        this.seed = seed;
+        this.displacements = displacements;
+        this.slots = slots;
+        this.size = size;
+    }
+
+    /**
+     * Builds a minimal perfect hash over the given keys.
+     *
+     * @param keys Distinct keys to index; must not be {@code null} nor contain {@code null}.
+     * @return The table describing the seed, the per-bucket displacements and the slot of each key.
+     * @throws IllegalArgumentException If {@code keys} contains duplicates.
+     */
+    public static PerfectHash build(List<String> keys) {
+        if (keys.size() != new HashSet<>(keys).size()) {
+            throw new IllegalArgumentException("Keys must be distinct");
+        }
+
+        // Only the first key of each hashCode is indexed; the others are collisions.
+        Set<Integer> hashCodes = new HashSet<>();
+        List<Integer> indexed = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            if (hashCodes.add(keys.get(i).hashCode())) {
+                indexed.add(i);
+            }
+        }
+
+        for (long seed = 0; seed < MAX_SEEDS; seed++) {
+            PerfectHash table = tryBuild(keys, indexed, seed);
+            if (table != null) {
+                return table;
+            }
+        }
+        throw new IllegalStateException("Unable to build a perfect hash over " + keys.size() + " keys");
+    }
+
+    private static PerfectHash tryBuild(List<String> keys, List<Integer> indexed, long seed) {
+        int size = indexed.size();
+        int bucketCount = Math.max(1, (size + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+
+        long[] hashes = new long[keys.size()];
+        List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int b = 0; b < bucketCount; b++) {
+            buckets.add(new ArrayList<>(KEYS_PER_BUCKET));
+        }
+        for (int i : indexed) {
+            hashes[i] = hash(keys.get(i), seed);
+            buckets.get(bucket(hashes[i], bucketCount)).add(i);
+        }
+
+        Integer[] order = new Integer[bucketCount];
+        Arrays.setAll(order, b -> b);
+        Arrays.sort(order, (a, b) -> Integer.compare(buckets.get(b).size(), buckets.get(a).size()));
+
+        int[] displacements = new int[bucketCount];
+        int[] slots = new int[keys.size()];
+        Arrays.fill(slots, -1);
+        boolean[] taken = new boolean[size];
+        int[] candidate = new int[KEYS_PER_BUCKET * 8];
+
+        for (int b : order) {
+            List<Integer> members = buckets.get(b);
+            if (members.isEmpty()) {
+                break; // sorted by size: only empty buckets remain
+            }
+            if (candidate.length < members.size()) {
+                candidate = new int[members.size()];
+            }
+
+            int displacement = 0;
+            search:
+            for (; displacement < MAX_DISPLACEMENT; displacement++) {
+                for (int m = 0; m < members.size(); m++) {
+                    int s = slot(hashes[members.get(m)], displacement, size);
+                    if (taken[s]) continue search;
+                    for (int p = 0; p < m; p++) {
+                        if (candidate[p] == s) continue search;
+                    }
+                    candidate[m] = s;
+                }
+                break;
+            }
+            if (displacement == MAX_DISPLACEMENT) {
+                return null;
+            }
+
+            displacements[b] = displacement;
+            for (int m = 0; m < members.size(); m++) {
+                taken[candidate[m]] = true;
+                slots[members.get(m)] = candidate[m];
+            }
+        }
+        return new PerfectHash(seed, displacements, slots, size);
+    }
+
+    /**
+     * Hashes a key by mixing its {@link String#hashCode()} with the table seed.
+     *
+     * @param key  Key to hash; must not be {@code null}.
+     * @param seed Global seed of the table.
+     * @return A well-mixed 64-bit hash.
+     */
+    public static long hash(String key, long seed) {
+        return mix(key.hashCode() + seed * 0x9e3779b97f4a7c15L);
+    }
+
+    /**
+     * Returns the slot of a previously hashed key.
+     *
+     * @param hash          Value returned by {@link #hash(String, long)}.
+     * @param displacements Per-bucket displacements of the table; must not be empty.
+     * @param size          Number of keys in the table; must be positive.
+     * @return A slot in {@code [0, size)}.
+     */
+    public static int slot(long hash, int[] displacements, int size) {
+        return slot(hash, displacements[bucket(hash, displacements.length)], size);
+    }
+
+    /**
+     * Returns the bucket of a previously hashed key, for callers storing displacements
+     * elsewhere than in an {@code int[]}.
+     *
+     * @param hash        Value returned by {@link #hash(String, long)}.
+     * @param bucketCount Number of displacements of the table; must be positive.
+     * @return A bucket in {@code [0, bucketCount)}.
+     */
+    public static int bucket(long hash, int bucketCount) {
+        return reduce(hash >>> 32, bucketCount);
+    }
+
+    /**
+     * Returns the slot of a previously hashed key given the displacement of its bucket.
+     *
+     * @param hash         Value returned by {@link #hash(String, long)}.
+     * @param displacement Displacement of the bucket returned by {@link #bucket(long, int)}.
+     * @param size         Number of keys in the table; must be positive.
+     * @return A slot in {@code [0, size)}.
+     */
+    public static int slot(long hash, int displacement, int size) {
+        return reduce(mix(hash + displacement * 0x9e3779b97f4a7c15L) >>> 32, size);
+    }
+
+    /** Maps a 32-bit value onto {@code [0, n)} with a multiply and a shift instead of a division. */
+    private static int reduce(long value, int n) {
+        return (int) ((value * n) >>> 32);
+    }
+
+    /** Murmur3 64-bit finalizer. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** @return The global seed passed to {@link #hash(String, long)}. */
+    public long seed() {
+        return seed;
+    }
+
+    /** @return A copy of the per-bucket displacements passed to {@link #slot(long, int[], int)}. */
+    public int[] displacements() {
+        return displacements.clone();
+    }
+
+    /** @return The number of indexed keys, i.e. the table size passed to {@link #slot(long, int[], int)}. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot assigned to the key at the given position of the input list.
+     *
+     * @param index Position of the key in the list passed to {@link #build(List)}.
+     * @return The slot of that key, or {@code -1} if it collides with an indexed key.
+     */
+    public int slotOf(int index) {
+        return slots[index];
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.cyfko.typeindex.providers;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -16,4 +17,105 @@ public interface RegistryProvider {
      * @return unmodifiable registry mapping keys to classes
      */
     Map<String, Class<?>> getRegistry();
+
+    /**
+     * Returns the registered keys.
+     * <p>
+     * Unlike {@link #getRegistry()}, this never loads the registered classes, which
+     * matters for providers generated with {@code -Atypeindex.classLoading=lazy}.
+     * The default implementation returns the registry key set.
+     *
+     * @return unmodifiable collection of registered keys
+     */
+    default Collection<String> keys() {
+        return getRegistry().keySet();
+    }
+
+    /**
+     * Returns the class registered under the given key.
+     * <p>
+     * Generated providers answer from a minimal perfect hash computed at compile
+     * time, costing one hash and one string comparison. The default
+     * implementation delegates to {@link #getRegistry()}, then to {@link #getAliases()}.
+     *
+     * @param key logical type key or alias; must not be {@code null}
+     * @return the registered class, or {@code null} if the key is not registered
+     */
+    default Class<?> lookup(String key) {
+        Class<?> type = getRegistry().get(key);
+        if (type == null) {
+            String canonical = getAliases().get(key);
+            return canonical != null ? getRegistry().get(canonical) : null;
+        }
+        return type;
+    }
+
+    /**
+     * Returns the key under which the given class is registered.
+     * <p>
+     * Generated providers answer from a reverse table emitted at compile time, so
+     * no class → key map has to be built at runtime. The default implementation
+     * scans {@link #getRegistry()}.
+     *
+     * @param type class to look up; must not be {@code null}
+     * @return the registered key, or {@code null} if the class is not registered
+     */
+    default String keyOf(Class<?> type) {
+        for (Map.Entry<String, Class<?>> entry : getRegistry().entrySet()) {
+            if (entry.getValue() == type) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type IDs declared with {@code @TypeKey(id = ...)}, by key.
+     * <p>
+     * Only keys of types declaring an ID are present. The default implementation
+     * returns an empty map.
+     *
+     * @return unmodifiable map of registered keys to their type IDs
+     */
+    default Map<String, Integer> getTypeIds() {
+        return Map.of();
+    }
+
+    /**
+     * Returns the aliases declared with {@code @TypeKey(aliases = ...)}, mapped to their key.
+     * <p>
+     * Aliases are not part of {@link #keys()} or {@link #getRegistry()}, but {@link #lookup(String)}
+     * resolves them like keys. The default implementation returns an empty map.
+     *
+     * @return unmodifiable map of aliases to the keys they stand for
+     */
+    default Map<String, String> getAliases() {
+        return Map.of();
+    }
+
+    /**
+     * Returns the registered keys by supertype.
+     * <p>
+     * Generated providers answer from supertypes recorded at compile time, without loading
+     * any registered class. The default implementation walks the supertypes of the classes of
+     * {@link #getRegistry()} on every call.
+     *
+     * @return index of the registered subtypes of every supertype of a registered type
+     */
+    default SubtypeIndex getSubtypeIndex() {
+        return SubtypeIndex.of(getRegistry());
+    }
+
+    /**
+     * Returns the registered keys in sorted order, by package and by kind.
+     * <p>
+     * Generated providers answer from packages and kinds recorded at compile time, without
+     * loading any registered class. The default implementation inspects the classes of
+     * {@link #getRegistry()} on every call.
+     *
+     * @return index of the registered keys by prefix, package and kind
+     */
+    default KeyIndex getKeyIndex() {
+        return KeyIndex.of(getRegistry());
+    }
 }
@@ -0,0 +1,122 @@
+package io.github.cyfko.typeindex.providers;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Helpers used by generated providers to build their tables at initialization.
+ * <p>
+ * Providers of large registries do not spell their maps out as {@code Map.ofEntries(...)}
+ * expressions, which would not fit in a class initializer; they fill parallel row arrays
+ * chunk by chunk, mostly from packed string constants, and derive the maps from them.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class RegistryTables {
+
+    private RegistryTables() {
+        // Utility class; not instantiable.
+    }
+
+    /**
+     * Copies comma-separated values into consecutive elements of {@code target}.
+     * <p>
+     * Generated providers pack keys and binary class names this way: a few string constants
+     * load and verify much faster than one array store instruction per value.
+     * </p>
+     *
+     * @param target Array to fill.
+     * @param offset Index of the first element to fill.
+     * @param packed Comma-separated values, none of them containing a comma.
+     * @return The index following the last element filled.
+     */
+    public static int unpack(String[] target, int offset, String... packed) {
+        for (String values : packed) {
+            int start = 0;
+            for (int end; (end = values.indexOf(',', start)) >= 0; start = end + 1) {
+                target[offset++] = values.substring(start, end);
+            }
+            target[offset++] = values.substring(start);
+        }
+        return offset;
+    }
+
+    /**
+     * Copies comma-separated decimal integers into consecutive elements of {@code target}.
+     *
+     * @param target Array to fill.
+     * @param offset Index of the first element to fill.
+     * @param packed Comma-separated integers.
+     * @return The index following the last element filled.
+     */
+    public static int unpack(int[] target, int offset, String... packed) {
+        for (String values : packed) {
+            int start = 0;
+            for (int end; (end = values.indexOf(',', start)) >= 0; start = end + 1) {
+                target[offset++] = Integer.parseInt(values, start, end, 10);
+            }
+            target[offset++] = Integer.parseInt(values, start, values.length(), 10);
+        }
+        return offset;
+    }
+
+    /**
+     * Returns an unmodifiable map associating {@code keys[i]} with the type ID {@code ids[i]}.
+     *
+     * @param keys Distinct keys; must not be {@code null} nor contain {@code null}.
+     * @param ids  Type IDs, as many as {@code keys}.
+     * @return An unmodifiable map of {@code keys.length} entries.
+     * @throws IllegalArgumentException If {@code keys} contains duplicates.
+     */
+    public static Map<String, Integer> ofIds(String[] keys, int[] ids) {
+        Integer[] values = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            values[i] = ids[i];
+        }
+        return ofEntries(keys, values);
+    }
+
+    /**
+     * Returns an unmodifiable map associating {@code keys[i]} with {@code values[i]}.
+     *
+     * @param keys   Distinct keys; must not be {@code null} nor contain {@code null}.
+     * @param values Values, as many as {@code keys}; must not contain {@code null}.
+     * @return An unmodifiable map of {@code keys.length} entries.
+     * @throws IllegalArgumentException If {@code keys} contains duplicates.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Map<K, V> ofEntries(K[] keys, V[] values) {
+        Map.Entry<K, V>[] entries = (Map.Entry<K, V>[]) new Map.Entry<?, ?>[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            entries[i] = Map.entry(keys[i], values[i]);
+        }
+        return Map.ofEntries(entries);
+    }
+
+    /**
+     * Returns a copy of {@code values} without the given rows.
+     * <p>
+     * Generated providers give the aliases of keys rows of their own in the perfect hash tables;
+     * the registry maps are built from the other rows.
+     * </p>
+     *
+     * @param values Row table.
+     * @param rows   Rows to leave out, in ascending order.
+     * @return A new array of {@code values.length - rows.length} elements, in row order.
+     */
+    public static <T> T[] withoutRows(T[] values, int[] rows) {
+        T[] kept = Arrays.copyOf(values, values.length - rows.length);
+        int next = 0;
+        int skipped = 0;
+        for (int row = 0; row < values.length; row++) {
+            if (skipped < rows.length && rows[skipped] == row) {
+                skipped++;
+            } else {
+                kept[next++] = values[row];
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.cyfko.typeindex.providers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registered keys by supertype, for listing the registered subtypes of a class or interface
+ * without loading or scanning every registered class.
+ * <p>
+ * Every supertype of a registered type (its superclasses, the interfaces it implements, directly
+ * or not, and the type itself, but not {@code Object}) maps to a {@link BitSet} of the rows of
+ * its registered subtypes. Supertypes are identified by binary name, as returned by
+ * {@link Class#getName()}. Generated providers record supertypes at compile time and build the
+ * bitsets from packed row lists on first use.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.1.0
+ */
+public final class SubtypeIndex {
+
+    /** Index of a provider without registered types. */
+    public static final SubtypeIndex EMPTY = new SubtypeIndex(new String[0], Map.of());
+
+    private final String[] keys;
+    private final Map<String, BitSet> rowsBySupertype;
+
+    private SubtypeIndex(String[] keys, Map<String, BitSet> rowsBySupertype) {
+        this.keys = keys;
+        this.rowsBySupertype = rowsBySupertype;
+    }
+
+    /**
+     * Builds an index from the tables of a generated provider: the registered subtypes of
+     * {@code supertypes[s]} are the keys of rows {@code rows[offsets[s]]} to
+     * {@code rows[offsets[s + 1] - 1]}.
+     *
+     * @param keys       Registered keys, by row.
+     * @param supertypes Binary names of the supertypes of registered types.
+     * @param offsets    Start of the rows of each supertype in {@code rows}, plus the end of the last.
+     * @param rows       Rows of the registered subtypes of each supertype, supertype after supertype.
+     * @return The index.
+     */
+    public static SubtypeIndex of(String[] keys, String[] supertypes, int[] offsets, int[] rows) {
+        Map<String, BitSet> rowsBySupertype = new HashMap<>(supertypes.length * 4 / 3 + 1);
+        for (int s = 0; s < supertypes.length; s++) {
+            BitSet bits = new BitSet(keys.length);
+            for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                bits.set(rows[i]);
+            }
+            rowsBySupertype.put(supertypes[s], bits);
+        }
+        return new SubtypeIndex(keys, Collections.unmodifiableMap(rowsBySupertype));
+    }
+
+    /**
+     * Builds an index by walking the supertypes of already loaded classes, for providers that do
+     * not record them at compile time.
+     *
+     * @param registry Registered classes, by key.
+     * @return The index.
+     */
+    public static SubtypeIndex of(Map<String, Class<?>> registry) {
+        String[] keys = registry.keySet().toArray(new String[0]);
+        Map<String, BitSet> rowsBySupertype = new HashMap<>();
+        for (int row = 0; row < keys.length; row++) {
+            for (String supertype : supertypesOf(registry.get(keys[row]))) {
+                rowsBySupertype.computeIfAbsent(supertype, s -> new BitSet(keys.length)).set(row);
+            }
+        }
+        return new SubtypeIndex(keys, Collections.unmodifiableMap(rowsBySupertype));
+    }
+
+    /** @return The binary names of a class, its superclasses and interfaces, but {@code Object}. */
+    private static Set<String> supertypesOf(Class<?> type) {
+        Set<String> names = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>(List.of(type));
+        while (!pending.isEmpty()) {
+            Class<?> next = pending.pop();
+            if (next != Object.class && names.add(next.getName())) {
+                if (next.getSuperclass() != null) {
+                    pending.push(next.getSuperclass());
+                }
+                pending.addAll(List.of(next.getInterfaces()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Merges the indexes of several providers. A key present in several indexes, as happens when
+     * a module is on the class path twice, keeps a single row.
+     *
+     * @param indexes Indexes to merge.
+     * @return The merged index.
+     */
+    public static SubtypeIndex merge(Collection<SubtypeIndex> indexes) {
+        Map<String, Integer> rowsByKey = new LinkedHashMap<>();
+        Map<String, BitSet> rowsBySupertype = new HashMap<>();
+        for (SubtypeIndex index : indexes) {
+            int[] rows = new int[index.keys.length];
+            for (int row = 0; row < rows.length; row++) {
+                rows[row] = rowsByKey.computeIfAbsent(index.keys[row], key -> rowsByKey.size());
+            }
+            for (Map.Entry<String, BitSet> entry : index.rowsBySupertype.entrySet()) {
+                BitSet bits = rowsBySupertype.computeIfAbsent(entry.getKey(), s -> new BitSet());
+                entry.getValue().stream().forEach(row -> bits.set(rows[row]));
+            }
+        }
+        return new SubtypeIndex(rowsByKey.keySet().toArray(new String[0]), Collections.unmodifiableMap(rowsBySupertype));
+    }
+
+    /**
+     * Returns the keys of the registered types assignable to the given type, including the type
+     * itself if it is registered.
+     *
+     * @param supertype Binary name of a class or interface, other than {@code java.lang.Object}.
+     * @return The keys of its registered subtypes, in row order; empty if it has none.
+     */
+    public List<String> subtypeKeys(String supertype) {
+        BitSet rows = rowsBySupertype.get(supertype);
+        if (rows == null) {
+            return List.of();
+        }
+        List<String> subtypes = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            subtypes.add(keys[row]);
+        }
+        return Collections.unmodifiableList(subtypes);
+    }
+
+    /** @return The binary names of the supertypes of registered types. */
+    public Set<String> supertypes() {
+        return rowsBySupertype.keySet();
+    }
+}
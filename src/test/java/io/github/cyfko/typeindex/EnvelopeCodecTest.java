@@ -0,0 +1,177 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.codec.EnvelopeCodec;
+import io.github.cyfko.typeindex.codec.ValueCodec;
+import io.github.cyfko.typeindex.codec.Varints;
+import io.github.cyfko.typeindex.model.EnvelopeBatch;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip and robustness tests for {@link EnvelopeCodec}.
+ * <p>
+ * Type keys of custom values resolve through the classpath tier, since the annotation processor
+ * does not run on test sources.
+ */
+class EnvelopeCodecTest {
+
+    private static final EnvelopeCodec CODEC = EnvelopeCodec.defaults()
+            .withValueCodec(UUID.class, ValueCodec.of(
+                    (out, id) -> out.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()),
+                    in -> new UUID(in.getLong(), in.getLong())))
+            .withValueCodec(LocalDate.class, ValueCodec.of(
+                    (out, date) -> Varints.writeLong(out, date.toEpochDay()),
+                    in -> LocalDate.ofEpochDay(Varints.readLong(in))));
+
+    @Test
+    void testRandomEnvelopesRoundTrip() {
+        Random random = new Random(42);
+        EnvelopeBatch batch = new EnvelopeBatch();
+
+        for (int run = 0; run < 2_000; run++) {
+            Object[] params = new Object[random.nextInt(40)];
+            for (int i = 0; i < params.length; i++) {
+                params[i] = randomValue(random);
+            }
+            List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(params);
+
+            ByteBuffer bytes = CODEC.encode(envelopes);
+            assertEquals(envelopes, CODEC.decode(bytes));
+            assertFalse(bytes.hasRemaining());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.limit());
+            CODEC.encode(TypeKeyRegistry.wrap(params, batch), direct);
+            assertEquals(bytes.flip(), direct.flip());
+            assertEquals(envelopes, CODEC.decode(direct, batch).asList());
+        }
+    }
+
+    @Test
+    void testPrimitiveKeysAndExtremeValuesRoundTrip() {
+        List<ParamEnvelope> envelopes = List.of(
+                new ParamEnvelope("int", Integer.MIN_VALUE),
+                new ParamEnvelope("long", Long.MAX_VALUE),
+                new ParamEnvelope("double", Double.NaN),
+                new ParamEnvelope("float", Float.NEGATIVE_INFINITY),
+                new ParamEnvelope("char", '\uffff'),
+                new ParamEnvelope("short", Short.MIN_VALUE),
+                new ParamEnvelope("byte", (byte) -1),
+                new ParamEnvelope("boolean", true),
+                new ParamEnvelope("java.lang.String", "été 😀"),
+                new ParamEnvelope("null", null)
+        );
+
+        assertEquals(envelopes, CODEC.decode(CODEC.encode(envelopes)));
+    }
+
+    @Test
+    void testRepeatedKeysAreWrittenOnce() {
+        UUID id = new UUID(1, 2);
+        ByteBuffer one = CODEC.encode(TypeKeyRegistry.wrap(new Object[]{id}));
+        ByteBuffer three = CODEC.encode(TypeKeyRegistry.wrap(new Object[]{id, id, id}));
+
+        // Each further UUID costs one tag byte and 16 value bytes
+        assertEquals(one.remaining() + 2 * 17, three.remaining());
+        assertEquals(1 + 1 + 2 + 1, CODEC.encode(TypeKeyRegistry.wrap(new Object[]{7, null})).remaining());
+    }
+
+    @Test
+    void testTruncatedAndCorruptedInputIsRejected() {
+        Random random = new Random(7);
+        for (int run = 0; run < 2_000; run++) {
+            Object[] params = new Object[1 + random.nextInt(10)];
+            for (int i = 0; i < params.length; i++) {
+                params[i] = randomValue(random);
+            }
+            ByteBuffer encoded = CODEC.encode(TypeKeyRegistry.wrap(params));
+            byte[] bytes = Arrays.copyOf(encoded.array(), encoded.limit());
+
+            ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, random.nextInt(bytes.length));
+            RuntimeException failure = assertThrows(RuntimeException.class, () -> CODEC.decode(truncated));
+            assertTrue(failure instanceof BufferUnderflowException || failure instanceof IllegalArgumentException,
+                    failure.toString());
+
+            bytes[random.nextInt(bytes.length)] ^= (byte) (1 + random.nextInt(255));
+            try {
+                CODEC.decode(ByteBuffer.wrap(bytes));
+            } catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException e) {
+                // Expected outcomes of corrupted input, besides decoding other values
+            }
+        }
+    }
+
+    @Test
+    void testUnencodableEnvelopesAreRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> EnvelopeCodec.defaults().encode(TypeKeyRegistry.wrap(new Object[]{new UUID(1, 2)})));
+        assertTrue(e.getMessage().contains("No value codec registered for java.util.UUID"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CODEC.encode(List.of(new ParamEnvelope("java.lang.String", null))));
+    }
+
+    private static boolean untrustedInitialized;
+
+    /** Class that must never be initialized by decoding. */
+    static class Untrusted {
+        static {
+            untrustedInitialized = true;
+        }
+    }
+
+    @Test
+    void testDecodingDoesNotLoadClassesWithoutValueCodec() {
+        // Same tag as the first, new key of an encoded UUID
+        byte newKey = CODEC.encode(TypeKeyRegistry.wrap(new Object[]{new UUID(1, 2)})).get(2);
+        ByteBuffer in = ByteBuffer.allocate(128).put((byte) 1).put((byte) 1).put(newKey);
+        Varints.writeString(in, Untrusted.class.getName());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CODEC.decode(in.flip()));
+        assertTrue(e.getMessage().contains(Untrusted.class.getName()));
+        assertFalse(untrustedInitialized);
+    }
+
+    @Test
+    void testOverflowLeavesTheBufferPositionUnchanged() {
+        ByteBuffer out = ByteBuffer.allocate(8).position(2);
+        assertThrows(BufferOverflowException.class,
+                () -> CODEC.encode(TypeKeyRegistry.wrap(new Object[]{"a long enough string"}), out));
+        assertEquals(2, out.position());
+    }
+
+    private static Object randomValue(Random random) {
+        return switch (random.nextInt(12)) {
+            case 0 -> null;
+            case 1 -> random.nextInt();
+            case 2 -> random.nextLong();
+            case 3 -> random.nextBoolean();
+            case 4 -> random.nextDouble();
+            case 5 -> random.nextFloat();
+            case 6 -> (short) random.nextInt();
+            case 7 -> (byte) random.nextInt();
+            case 8 -> (char) random.nextInt(Character.MAX_VALUE + 1);
+            case 9 -> randomString(random);
+            case 10 -> new UUID(random.nextLong(), random.nextLong());
+            default -> LocalDate.ofEpochDay(random.nextInt(100_000) - 50_000);
+        };
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder s = new StringBuilder();
+        for (int i = random.nextInt(20); i > 0; i--) {
+            s.appendCodePoint(random.nextBoolean() ? 'a' + random.nextInt(26) : random.nextInt(0x10000) & ~0x800);
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Overload selection and invocation tests for {@link EnvelopeInvoker}.
+ */
+class EnvelopeInvokerTest {
+
+    private static final BiFunction<Object, Class<?>, Object> AS_IS = (value, type) -> value;
+
+    @SuppressWarnings("unused")
+    static class Commands {
+        final List<String> calls = new ArrayList<>();
+
+        public String handle(String name, int quantity) {
+            calls.add("String,int");
+            return name + " x" + quantity;
+        }
+
+        public String handle(CharSequence name, Integer quantity) {
+            calls.add("CharSequence,Integer");
+            return "boxed";
+        }
+
+        public void handle(Object anything) {
+            calls.add("Object");
+        }
+
+        public long handle(long value) {
+            return value * 2;
+        }
+
+        public static String handle(String a, String b, String c) {
+            return a + b + c;
+        }
+
+        private void handle(List<?> items) {
+            calls.add("List");
+        }
+
+        public void fail(String message) {
+            throw new IllegalArgumentException(message);
+        }
+
+        public String scale(long value) {
+            return "long:" + value;
+        }
+
+        public String scale(double value) {
+            return "double:" + value;
+        }
+
+        public void ambiguous(String value) {
+        }
+
+        public void ambiguous(Integer value) {
+        }
+    }
+
+    @Test
+    void testInvokesTheMostSpecificOverload() throws Throwable {
+        Commands commands = new Commands();
+        EnvelopeInvoker handle = EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "handle");
+
+        assertEquals("boxed", handle.invoke(commands, wrap("apples", 3), AS_IS));
+        assertNull(handle.invoke(commands, wrap(new StringBuilder()), AS_IS));
+        assertEquals(42L, handle.invoke(commands, List.of(new ParamEnvelope("long", 21L)), AS_IS));
+        assertEquals("abc", handle.invoke(null, wrap("a", "b", "c"), AS_IS));
+        assertNull(handle.invoke(commands, wrap(new ArrayList<>()), AS_IS));
+        assertNull(handle.invoke(commands, wrap((Object) null), AS_IS));
+        assertNull(handle.invoke(commands, wrap(21L), AS_IS));
+
+        assertEquals(List.of("CharSequence,Integer", "Object", "List", "List", "Object"), commands.calls);
+    }
+
+    @Test
+    void testSelectsOverloadsFromResolvedTypes() {
+        EnvelopeInvoker handle = EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "handle");
+
+        UnwrapPlan plan = TypeKeyRegistry.unwrapPlan(List.of("java.lang.String", "int"));
+        assertEquals("handle(java.lang.String,int)", signature(handle, plan));
+        assertEquals("handle(java.lang.CharSequence,java.lang.Integer)",
+                signature(handle, TypeKeyRegistry.unwrapPlan(List.of("java.lang.String", "java.lang.Integer"))));
+        // As in Java, boxing is only considered when no overload applies without it
+        assertEquals("handle(java.lang.Object)", signature(handle, TypeKeyRegistry.unwrapPlan(List.of("java.lang.Long"))));
+        assertEquals("handle(long)", signature(handle, TypeKeyRegistry.unwrapPlan(List.of("long"))));
+    }
+
+    @Test
+    void testWidensPrimitivesAsJavaDoes() throws Throwable {
+        Commands commands = new Commands();
+        EnvelopeInvoker scale = EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "scale");
+
+        assertEquals("long:3", scale.invoke(commands, List.of(new ParamEnvelope("int", 3)), AS_IS));
+        assertEquals("long:7", scale.invoke(commands, List.of(new ParamEnvelope("char", (char) 7)), AS_IS));
+        assertEquals("long:5", scale.invoke(commands, List.of(new ParamEnvelope("long", 5L)), AS_IS));
+        assertEquals("double:1.5", scale.invoke(commands, List.of(new ParamEnvelope("float", 1.5f)), AS_IS));
+        // Unboxing, then widening
+        assertEquals("long:4", scale.invoke(commands, wrap((short) 4), AS_IS));
+        assertEquals("double:2.5", scale.invoke(commands, wrap(2.5f), AS_IS));
+        assertThrows(IllegalArgumentException.class,
+                () -> scale.invoke(commands, List.of(new ParamEnvelope("boolean", true)), AS_IS));
+    }
+
+    @Test
+    void testMapsValuesBeforeInvoking() throws Throwable {
+        EnvelopeInvoker handle = EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "handle");
+        List<ParamEnvelope> envelopes = List.of(
+                new ParamEnvelope("java.lang.String", "pears"),
+                new ParamEnvelope("java.lang.Integer", "5"));
+
+        Object result = handle.invoke(new Commands(), envelopes,
+                (value, type) -> type == Integer.class ? Integer.valueOf((String) value) : value);
+        assertEquals("boxed", result);
+    }
+
+    @Test
+    void testReportsUnsupportedSignaturesAndRethrowsTargetExceptions() {
+        Commands commands = new Commands();
+        EnvelopeInvoker handle = EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "handle");
+
+        assertThrows(IllegalArgumentException.class, () -> handle.invoke(commands, wrap(1, 2, 3, 4), AS_IS));
+        assertThrows(IllegalArgumentException.class, () -> EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "ambiguous")
+                .invoke(commands, wrap((Object) null), AS_IS));
+        assertThrows(ClassCastException.class, () -> handle.invoke("not commands", wrap(List.of()), AS_IS));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> EnvelopeInvoker.of(MethodHandles.lookup(), Commands.class, "fail")
+                        .invoke(commands, wrap("boom"), AS_IS));
+        assertEquals("boom", e.getMessage());
+    }
+
+    private static List<ParamEnvelope> wrap(Object... params) {
+        return TypeKeyRegistry.wrap(params);
+    }
+
+    private static String signature(EnvelopeInvoker invoker, UnwrapPlan plan) {
+        String method = invoker.methodFor(plan).toString();
+        return method.substring(method.indexOf("handle("));
+    }
+}
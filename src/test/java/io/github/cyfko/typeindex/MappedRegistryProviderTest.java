@@ -0,0 +1,201 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.providers.KeyIndex;
+import io.github.cyfko.typeindex.providers.MappedRegistryProvider;
+import io.github.cyfko.typeindex.providers.SubtypeIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary registry index read by providers generated with {@code -Atypeindex.storage=binary}.
+ */
+class MappedRegistryProviderTest {
+
+    private static final String INDEX = "META-INF/typeindex/test.idx";
+
+    @TempDir
+    Path classpath;
+
+    private MappedRegistryProvider open(List<String> keys, List<String> binaryNames) throws IOException {
+        Path index = classpath.resolve(INDEX);
+        Files.createDirectories(index.getParent());
+        try (OutputStream out = Files.newOutputStream(index)) {
+            MappedRegistryProvider.write(out, keys, binaryNames);
+        }
+        URLClassLoader loader = new URLClassLoader(new URL[]{classpath.toUri().toURL()}, getClass().getClassLoader());
+        return new MappedRegistryProvider(loader, INDEX);
+    }
+
+    @Test
+    void testLookupAndKeyOfReadTheIndex() throws IOException {
+        // "Aa" and "BB" have the same String.hashCode(): one of them lands in the collision tail.
+        MappedRegistryProvider provider = open(
+                List.of("Aa", "BB", "date", "uuid", "entry"),
+                List.of("java.lang.String", "java.lang.Integer", "java.time.LocalDate", "java.util.UUID",
+                        "java.util.Map$Entry"));
+
+        assertSame(String.class, provider.lookup("Aa"));
+        assertSame(Integer.class, provider.lookup("BB"));
+        assertSame(LocalDate.class, provider.lookup("date"));
+        assertSame(Map.Entry.class, provider.lookup("entry"));
+        assertNull(provider.lookup("missing"));
+        assertNull(provider.lookup("dat"));
+
+        assertEquals("uuid", provider.keyOf(UUID.class));
+        assertEquals("BB", provider.keyOf(Integer.class));
+        assertNull(provider.keyOf(Long.class));
+
+        assertEquals(new HashSet<>(List.of("Aa", "BB", "date", "uuid", "entry")), new HashSet<>(provider.keys()));
+        assertEquals(5, provider.getRegistry().size());
+        assertSame(UUID.class, provider.getRegistry().get("uuid"));
+    }
+
+    @Test
+    void testLargeIndexResolvesEveryKey() throws IOException {
+        List<String> names = List.of("java.lang.String", "java.lang.Integer", "java.lang.Long", "java.util.UUID");
+        List<String> keys = new ArrayList<>();
+        List<String> binaryNames = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            keys.add("type.key-" + i);
+            binaryNames.add(i < names.size() ? names.get(i) : "bench.Missing" + i);
+        }
+
+        MappedRegistryProvider provider = open(keys, binaryNames);
+
+        assertEquals(20_000, provider.keys().size());
+        assertSame(Long.class, provider.lookup("type.key-2"));
+        assertEquals("type.key-3", provider.keyOf(UUID.class));
+        assertNull(provider.lookup("type.key-20000"));
+        // Classes are only loaded on lookup, so unknown names fail there.
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> provider.lookup("type.key-19999"));
+        assertTrue(error.getMessage().contains("bench.Missing19999"));
+    }
+
+    @Test
+    void testSubtypeAndKeyIndexesAreReadWithoutLoadingClasses() throws IOException {
+        Path index = classpath.resolve(INDEX);
+        Files.createDirectories(index.getParent());
+        try (OutputStream out = Files.newOutputStream(index)) {
+            MappedRegistryProvider.write(out,
+                    List.of("circle", "square", "note"),
+                    List.of("shapes.Circle", "shapes.Square", "notes.Note"),
+                    List.of(Set.of("shapes.Circle", "shapes.Round", "shapes.Shape"),
+                            Set.of("shapes.Square", "shapes.Shape"),
+                            Set.of("notes.Note")),
+                    List.of(TypeKind.RECORD, TypeKind.CLASS, TypeKind.ENUM),
+                    Map.of("disc", "circle"));
+        }
+        URLClassLoader loader = new URLClassLoader(new URL[]{classpath.toUri().toURL()}, getClass().getClassLoader());
+        MappedRegistryProvider provider = new MappedRegistryProvider(loader, INDEX);
+
+        SubtypeIndex subtypes = provider.getSubtypeIndex();
+        assertEquals(Set.of("circle", "square"), Set.copyOf(subtypes.subtypeKeys("shapes.Shape")));
+        assertEquals(List.of("circle"), subtypes.subtypeKeys("shapes.Round"));
+        assertEquals(List.of("note"), subtypes.subtypeKeys("notes.Note"));
+        assertEquals(List.of(), subtypes.subtypeKeys("shapes.Missing"));
+        assertSame(subtypes, provider.getSubtypeIndex());
+
+
+        KeyIndex keys = provider.getKeyIndex();
+        assertEquals(List.of("circle", "note", "square"), keys.keys());
+        assertEquals(List.of("circle", "square"), keys.keysInPackage("shapes"));
+        assertEquals(List.of("note"), keys.keysOfKind(TypeKind.ENUM));
+        assertEquals(List.of("circle"), keys.keysOfKind(TypeKind.RECORD));
+        assertEquals(List.of("square"), keys.keysWithPrefix("sq"));
+        assertEquals(List.of(), keys.keysWithPrefix("disc"));
+        assertSame(keys, provider.getKeyIndex());
+
+        // Overwrites the index of the provider above
+        MappedRegistryProvider empty = open(List.of(), List.of());
+        assertTrue(empty.getSubtypeIndex().supertypes().isEmpty());
+        assertTrue(empty.getKeyIndex().keys().isEmpty());
+        assertEquals(List.of(), empty.getKeyIndex().keysWithPrefix(""));
+    }
+
+    @Test
+    void testAliasesResolveLikeKeys() throws IOException {
+        Path index = classpath.resolve(INDEX);
+        Files.createDirectories(index.getParent());
+        // "Aa" and "BB" have the same String.hashCode(): one of them lands in the collision tail.
+        try (OutputStream out = Files.newOutputStream(index)) {
+            MappedRegistryProvider.write(out,
+                    List.of("text", "date"),
+                    List.of("java.lang.String", "java.time.LocalDate"),
+                    List.of(Set.of(), Set.of()),
+                    List.of(TypeKind.CLASS, TypeKind.CLASS),
+                    Map.of("Aa", "text", "BB", "date", "string", "text"));
+        }
+        URLClassLoader loader = new URLClassLoader(new URL[]{classpath.toUri().toURL()}, getClass().getClassLoader());
+        MappedRegistryProvider provider = new MappedRegistryProvider(loader, INDEX);
+
+        assertSame(String.class, provider.lookup("Aa"));
+        assertSame(String.class, provider.lookup("string"));
+        assertSame(LocalDate.class, provider.lookup("BB"));
+        assertSame(String.class, provider.lookup("text"));
+        assertNull(provider.lookup("Ab"));
+
+        assertEquals("text", provider.keyOf(String.class));
+        assertEquals(List.of("text", "date"), List.copyOf(provider.keys()));
+        assertEquals(Set.of("text", "date"), provider.getRegistry().keySet());
+        assertEquals(Map.of("Aa", "text", "BB", "date", "string", "text"), provider.getAliases());
+    }
+
+    @Test
+    void testEmptyIndex() throws IOException {
+        MappedRegistryProvider provider = open(List.of(), List.of());
+
+        assertNull(provider.lookup("any"));
+        assertNull(provider.keyOf(String.class));
+        assertTrue(provider.keys().isEmpty());
+        assertTrue(provider.getRegistry().isEmpty());
+    }
+
+    @Test
+    void testIndexPackagedInAJarIsRead() throws IOException {
+        Path jar = classpath.resolve("registry.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            // Compressed, as jar tools write entries by default
+            JarEntry entry = new JarEntry(INDEX);
+            entry.setMethod(ZipEntry.DEFLATED);
+            out.putNextEntry(entry);
+            MappedRegistryProvider.write(out, List.of("date", "uuid"), List.of("java.time.LocalDate", "java.util.UUID"));
+            out.closeEntry();
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader())) {
+            assertEquals("jar", loader.getResource(INDEX).getProtocol());
+            MappedRegistryProvider provider = new MappedRegistryProvider(loader, INDEX);
+
+            assertSame(LocalDate.class, provider.lookup("date"));
+            assertEquals("uuid", provider.keyOf(UUID.class));
+            assertNull(provider.lookup("missing"));
+            assertEquals(Set.of("date", "uuid"), provider.getRegistry().keySet());
+        }
+    }
+
+    @Test
+    void testMissingIndexIsReported() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> new MappedRegistryProvider(getClass().getClassLoader(), "META-INF/typeindex/missing.idx"));
+        assertTrue(error.getMessage().contains("missing.idx"));
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.providers.PerfectHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the minimal perfect hash emitted into generated providers.
+ */
+class PerfectHashTest {
+
+    @Test
+    void testEveryKeyGetsADistinctSlot() {
+        for (int size : new int[]{1, 2, 10, 1_000, 50_000}) {
+            List<String> keys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                keys.add("type.key-" + i);
+            }
+
+            PerfectHash table = PerfectHash.build(keys);
+            int[] displacements = table.displacements();
+            boolean[] seen = new boolean[size];
+
+            for (int i = 0; i < size; i++) {
+                int slot = PerfectHash.slot(PerfectHash.hash(keys.get(i), table.seed()), displacements, table.size());
+                assertEquals(table.slotOf(i), slot, "Slot mismatch for " + keys.get(i));
+                assertFalse(seen[slot], "Slot " + slot + " assigned twice (size " + size + ")");
+                seen[slot] = true;
+            }
+        }
+    }
+
+    @Test
+    void testKeysSharingAHashCodeAreReportedAsCollisions() {
+        // "Aa" and "BB" have the same String.hashCode()
+        PerfectHash table = PerfectHash.build(List.of("Aa", "BB", "other"));
+
+        assertEquals(2, table.size());
+        assertTrue(table.slotOf(0) >= 0);
+        assertEquals(-1, table.slotOf(1));
+        assertTrue(table.slotOf(2) >= 0);
+    }
+
+    @Test
+    void testDuplicateKeysAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PerfectHash.build(List.of("a", "b", "a")));
+    }
+}
@@ -4,10 +4,22 @@ import com.google.testing.compile.Compilation;
 import com.google.testing.compile.Compiler;
 import com.google.testing.compile.JavaFileObjects;
 import io.github.cyfko.typeindex.processor.TypeIndexProcessor;
+import io.github.cyfko.typeindex.providers.KeyIndex;
+import io.github.cyfko.typeindex.providers.RegistryProvider;
+import io.github.cyfko.typeindex.providers.SubtypeIndex;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -62,13 +74,17 @@ class TypeIndexProcessorTest {
 
         // Verify registry structure
         assertTrue(generatedCode.contains("class RegistryProviderImpl implements RegistryProvider"));
-        assertTrue(generatedCode.contains("Map.ofEntries("));
+        assertTrue(generatedCode.contains("Map.<String, Class<?>>ofEntries("));
 
         // Verify both entries are present with correct format
         assertTrue(generatedCode.contains("Map.entry(\"my-key\", io.github.cyfko.example.User.class)"));
         assertTrue(generatedCode.contains("Map.entry(\"#1\", io.github.cyfko.example.Address.class)"));
         assertTrue(generatedCode.contains("Map.entry(\"my.enum#1\", io.github.cyfko.example.MyEnum.class)"));
 
+        // Verify the reverse index is generated
+        assertTrue(generatedCode.contains("Map.entry(io.github.cyfko.example.User.class, \"my-key\")"));
+        assertTrue(generatedCode.contains("public String keyOf(Class<?> type)"));
+
         // Verify @Generated annotation
         assertTrue(generatedCode.contains("@Generated(\"io.github.cyfko.typeindex.processor.TypeIndexProcessor\")"));
     }
@@ -346,11 +362,749 @@ class TypeIndexProcessorTest {
         assertTrue(generatedCode.contains("\"com.example.key\""));
     }
 
+    @Test
+    void testSmallRegistryUsesSwitchLookup() throws IOException {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"my-key\")",
+                "public class User {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .compile(user);
+
+        assertThat(compilation).succeeded();
+
+        String generatedCode = getGeneratedRegistryCode(compilation);
+
+        assertTrue(generatedCode.contains("return switch (key) {"));
+        assertTrue(generatedCode.contains("case \"my-key\" -> io.github.cyfko.example.User.class;"));
+        assertFalse(generatedCode.contains("DISPLACEMENTS"));
+    }
+
+    @Test
+    void testPerfectHashLookupIsGenerated() throws IOException {
+        JavaFileObject[] classes = new JavaFileObject[15];
+
+        for (int i = 0; i < 15; i++) {
+            classes[i] = JavaFileObjects.forSourceLines(
+                    "io.github.cyfko.example.Class" + i,
+                    "package io.github.cyfko.example;",
+                    "",
+                    "import io.github.cyfko.typeindex.TypeKey;",
+                    "",
+                    "@TypeKey(\"key-" + i + "\")",
+                    "public class Class" + i + " {",
+                    "}"
+            );
+        }
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.switchLimit=0")
+                .compile(classes);
+
+        assertThat(compilation).succeeded();
+
+        String generatedCode = getGeneratedRegistryCode(compilation);
+
+        assertTrue(generatedCode.contains("private static final int[] DISPLACEMENTS"));
+        assertTrue(generatedCode.contains("private static final String[] KEYS"));
+        assertTrue(generatedCode.contains("private static final Class<?>[] TYPES"));
+        assertTrue(generatedCode.contains("public Class<?> lookup(String key)"));
+        assertTrue(generatedCode.contains("io.github.cyfko.example.Class7.class"));
+    }
+
+    @Test
+    void testKeysSharingAHashCodeAreScannedAfterTheTable() throws IOException {
+        // "Aa" and "BB" have the same String.hashCode()
+        JavaFileObject first = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.First",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"Aa\")",
+                "public class First {",
+                "}"
+        );
+
+        JavaFileObject second = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Second",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"BB\")",
+                "public class Second {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.switchLimit=0")
+                .compile(first, second);
+
+        assertThat(compilation).succeeded();
+
+        String generatedCode = getGeneratedRegistryCode(compilation);
+        assertTrue(generatedCode.contains("private static final int SLOTS = 1;"));
+        assertTrue(generatedCode.contains("for (int i = SLOTS; i < KEYS.length; i++) {"));
+        assertTrue(generatedCode.contains("\"Aa\""));
+        assertTrue(generatedCode.contains("\"BB\""));
+    }
+
+    @Test
+    void testLazyClassLoadingStoresBinaryNames() throws IOException {
+        JavaFileObject outer = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Outer",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "public class Outer {",
+                "    @TypeKey(\"inner\")",
+                "    public static class Inner {",
+                "    }",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.classLoading=lazy")
+                .compile(outer);
+
+        assertThat(compilation).succeeded();
+
+        String generatedCode = getGeneratedRegistryCode(compilation);
+
+        assertTrue(generatedCode.contains("new LazyTypeTable(RegistryProviderImpl.class"));
+        assertTrue(generatedCode.contains("\"io.github.cyfko.example.Outer$Inner\""));
+        assertTrue(generatedCode.contains("case \"inner\" -> TYPES.get(0);"));
+        assertTrue(generatedCode.contains("public Collection<String> keys()"));
+        assertFalse(generatedCode.contains(".class)"));
+    }
+
+    @Test
+    void testNamedProviderIsRegisteredAsService() throws IOException {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"user\")",
+                "public class User {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.provider=io.github.cyfko.example.ExampleTypeIndex")
+                .compile(user);
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("io.github.cyfko.example.ExampleTypeIndex");
+        assertThat(compilation)
+                .generatedFile(StandardLocation.CLASS_OUTPUT,
+                        "META-INF/services/io.github.cyfko.typeindex.providers.RegistryProvider")
+                .contentsAsUtf8String()
+                .isEqualTo("io.github.cyfko.example.ExampleTypeIndex\n");
+        assertFalse(compilation
+                .generatedSourceFile("io.github.cyfko.typeindex.providers.RegistryProviderImpl")
+                .isPresent());
+    }
+
+    @Test
+    void testBinaryStorageWritesAnIndex() throws IOException {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"user\")",
+                "public class User {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.storage=binary")
+                .compile(user);
+
+        assertThat(compilation).succeeded();
+
+        String generatedCode = getGeneratedRegistryCode(compilation);
+
+        assertTrue(generatedCode.contains("public final class RegistryProviderImpl extends MappedRegistryProvider"));
+        assertTrue(generatedCode.contains(
+                "\"META-INF/typeindex/io.github.cyfko.typeindex.providers.RegistryProviderImpl.idx\""));
+        assertFalse(generatedCode.contains("User"));
+
+        try (InputStream in = compilation.generatedFile(StandardLocation.CLASS_OUTPUT,
+                        "META-INF/typeindex/io.github.cyfko.typeindex.providers.RegistryProviderImpl.idx")
+                .orElseThrow()
+                .openInputStream()) {
+            String index = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+            assertTrue(index.startsWith("TIDX"));
+            assertTrue(index.contains("io.github.cyfko.example.User"));
+        }
+    }
+
+    @Test
+    void testGeneratedFilesDoNotDependOnSourceOrder() throws IOException {
+        JavaFileObject[] sources = new JavaFileObject[200];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = JavaFileObjects.forSourceLines(
+                    "io.github.cyfko.example.Type" + i,
+                    "package io.github.cyfko.example;",
+                    "",
+                    "import io.github.cyfko.typeindex.TypeKey;",
+                    "",
+                    "@TypeKey(\"type-" + i + "\")",
+                    "public class Type" + i + " {",
+                    "}"
+            );
+        }
+        JavaFileObject[] reversed = new JavaFileObject[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            reversed[i] = sources[sources.length - 1 - i];
+        }
+
+        for (String storage : new String[]{"source", "binary"}) {
+            Compilation forward = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions("-Atypeindex.storage=" + storage)
+                    .compile(sources);
+            Compilation backward = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions("-Atypeindex.storage=" + storage)
+                    .compile(reversed);
+
+            assertThat(forward).succeeded();
+            assertThat(backward).succeeded();
+            assertEquals(getGeneratedRegistryCode(forward), getGeneratedRegistryCode(backward));
+        }
+
+        String index = "META-INF/typeindex/io.github.cyfko.typeindex.providers.RegistryProviderImpl.idx";
+        byte[][] indexes = new byte[2][];
+        for (int run = 0; run < 2; run++) {
+            Compilation compilation = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions("-Atypeindex.storage=binary")
+                    .compile(run == 0 ? sources : reversed);
+            try (InputStream in = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, index)
+                    .orElseThrow()
+                    .openInputStream()) {
+                indexes[run] = in.readAllBytes();
+            }
+        }
+        assertArrayEquals(indexes[0], indexes[1]);
+    }
+
+    @Test
+    void testInvalidProviderNameFailsCompilation() {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"user\")",
+                "public class User {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.provider=Registry")
+                .compile(user);
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("-Atypeindex.provider");
+    }
+
+    @Test
+    void testLargeRegistryIsSplitIntoChunks() throws IOException {
+        JavaFileObject[] classes = new JavaFileObject[3000];
+
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = JavaFileObjects.forSourceLines(
+                    "io.github.cyfko.example.Class" + i,
+                    "package io.github.cyfko.example;",
+                    "",
+                    "@io.github.cyfko.typeindex.TypeKey(\"key-" + i + "\")",
+                    "public class Class" + i + " {",
+                    "}"
+            );
+        }
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .compile(classes);
+
+        assertThat(compilation).succeeded();
+
+        String generatedCode = getGeneratedRegistryCode(compilation);
+
+        assertTrue(generatedCode.contains("private static final String[] KEYS = new String[3000];"));
+        assertTrue(generatedCode.contains("Chunk2.fill(KEYS, TYPES, DISPLACEMENTS);"));
+        assertTrue(generatedCode.contains("RegistryTables.unpack(keys, 2048,"));
+        assertTrue(generatedCode.contains("REGISTRY = RegistryTables.ofEntries(KEYS, TYPES);"));
+        assertFalse(generatedCode.contains("Chunk3"));
+        assertFalse(generatedCode.contains("Map.entry("));
+    }
+
+    /**
+     * Compiles a registry of 100,000 types and measures the initialization of its provider.
+     * Takes about a minute, so it only runs with {@code -Dtypeindex.largeTests=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "typeindex.largeTests", matches = "true")
+    void testHundredThousandEntriesCompileAndResolve() throws Exception {
+        JavaFileObject[] sources = annotatedModules(100_000, false);
+
+        for (String classLoading : new String[]{"eager", "lazy"}) {
+            Compilation compilation = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions("-Atypeindex.classLoading=" + classLoading)
+                    .compile(sources);
+
+            assertThat(compilation).succeeded();
+
+            ClassLoader loader = generatedClassLoader(compilation);
+
+            long start = System.nanoTime();
+            RegistryProvider provider = (RegistryProvider) loader
+                    .loadClass("io.github.cyfko.typeindex.providers.RegistryProviderImpl")
+                    .getConstructor()
+                    .newInstance();
+            long initNanos = System.nanoTime() - start;
+            System.out.printf("100,000-entry provider (%s) initialized in %d ms%n", classLoading, initNanos / 1_000_000);
+
+            assertEquals(100_000, provider.keys().size());
+            Class<?> type = provider.lookup("key-99999");
+            assertEquals("io.github.cyfko.example.Module99$Type999", type.getName());
+            assertEquals("key-99999", provider.keyOf(type));
+            assertNull(provider.lookup("key-100000"));
+        }
+    }
+
+    @Test
+    void testTypeIdsAreGenerated() throws IOException {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(value = \"user\", id = 1)",
+                "public class User {",
+                "}"
+        );
+        JavaFileObject order = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Order",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(value = \"order\", id = 0)",
+                "public class Order {",
+                "}"
+        );
+        JavaFileObject address = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Address",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(\"address\")",
+                "public class Address {",
+                "}"
+        );
+
+        for (String storage : new String[]{"source", "binary"}) {
+            Compilation compilation = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions("-Atypeindex.storage=" + storage)
+                    .compile(user, order, address);
+
+            assertThat(compilation).succeeded();
+
+            String generatedCode = getGeneratedRegistryCode(compilation);
+            assertTrue(generatedCode.contains("public Map<String, Integer> getTypeIds()"));
+            assertTrue(generatedCode.contains("RegistryTables.unpack(keys, 0,\n                    \"order,user\");"));
+            assertTrue(generatedCode.contains("RegistryTables.unpack(ids, 0,\n                    \"0,1\");"));
+        }
+    }
+
+    @Test
+    void testSupertypesAreRecordedForTheSubtypeIndex() throws Exception {
+        JavaFileObject shapes = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Shapes",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "public class Shapes {",
+                "    public interface Shape {}",
+                "    public interface Round extends Shape {}",
+                "    public abstract static class Base implements Shape {}",
+                "    @TypeKey(\"circle\") public static class Circle extends Base implements Round {}",
+                "    @TypeKey(\"square\") public static class Square extends Base {}",
+                "    @TypeKey(\"color\") public enum Color { RED }",
+                "}"
+        );
+
+        for (String options : new String[]{"-Atypeindex.classLoading=eager", "-Atypeindex.classLoading=lazy",
+                "-Atypeindex.switchLimit=1"}) {
+            Compilation compilation = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions(options)
+                    .compile(shapes);
+
+            assertThat(compilation).succeeded();
+            assertTrue(getGeneratedRegistryCode(compilation).contains("public SubtypeIndex getSubtypeIndex()"));
+
+            RegistryProvider provider = (RegistryProvider) generatedClassLoader(compilation)
+                    .loadClass("io.github.cyfko.typeindex.providers.RegistryProviderImpl")
+                    .getConstructor()
+                    .newInstance();
+            SubtypeIndex index = provider.getSubtypeIndex();
+
+            String prefix = "io.github.cyfko.example.Shapes$";
+            assertEquals(List.of("circle", "square"), index.subtypeKeys(prefix + "Shape"), options);
+            assertEquals(List.of("circle", "square"), index.subtypeKeys(prefix + "Base"), options);
+            assertEquals(List.of("circle"), index.subtypeKeys(prefix + "Round"), options);
+            assertEquals(List.of("circle"), index.subtypeKeys(prefix + "Circle"), options);
+            assertEquals(List.of("color"), index.subtypeKeys("java.lang.Enum"), options);
+            assertFalse(index.supertypes().contains("java.lang.Object"), options);
+        }
+    }
+
+    @Test
+    void testPackagesAndKindsAreRecordedForTheKeyIndex() throws Exception {
+        JavaFileObject status = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.status.Status",
+                "package io.github.cyfko.example.status;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"status.code\") public enum Status { OK }"
+        );
+        JavaFileObject events = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Events",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "public class Events {",
+                "    @TypeKey(\"status.changed\") public record Changed(String to) {}",
+                "    @TypeKey(\"event.base\") public static class Base {}",
+                "    @TypeKey(\"status-report\") public record Report() {}",
+                "}"
+        );
+
+        for (String options : new String[]{"-Atypeindex.classLoading=eager", "-Atypeindex.classLoading=lazy",
+                "-Atypeindex.switchLimit=1"}) {
+            Compilation compilation = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions(options)
+                    .compile(status, events);
+
+            assertThat(compilation).succeeded();
+            assertTrue(getGeneratedRegistryCode(compilation).contains("public KeyIndex getKeyIndex()"));
+
+            RegistryProvider provider = (RegistryProvider) generatedClassLoader(compilation)
+                    .loadClass("io.github.cyfko.typeindex.providers.RegistryProviderImpl")
+                    .getConstructor()
+                    .newInstance();
+            KeyIndex index = provider.getKeyIndex();
+
+            assertEquals(List.of("event.base", "status-report", "status.changed", "status.code"), index.keys(), options);
+            assertEquals(List.of("status.changed", "status.code"), index.keysWithPrefix("status."), options);
+            assertEquals(List.of("status-report", "status.changed", "status.code"), index.keysWithPrefix("status"), options);
+            assertEquals(List.of(), index.keysWithPrefix("statuses"), options);
+            assertEquals(List.of("event.base", "status-report", "status.changed"),
+                    index.keysInPackage("io.github.cyfko.example"), options);
+            assertEquals(List.of("status.code"), index.keysInPackage("io.github.cyfko.example.status"), options);
+            assertEquals(List.of(), index.keysInPackage("io.github"), options);
+            assertEquals(List.of("status-report", "status.changed"), index.keysOfKind(TypeKind.RECORD), options);
+            assertEquals(List.of("status.code"), index.keysOfKind(TypeKind.ENUM), options);
+            assertEquals(List.of("event.base"), index.keysOfKind(TypeKind.CLASS), options);
+            assertSame(index, provider.getKeyIndex(), options);
+        }
+    }
+
+    @Test
+    void testAliasesResolveToTheCanonicalKey() throws Exception {
+        JavaFileObject order = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Order",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(value = \"order\", aliases = {\"purchase-order\", \"legacy.order\"})",
+                "public class Order {",
+                "}"
+        );
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(value = \"user\", aliases = \"customer\")",
+                "public class User {",
+                "}"
+        );
+        JavaFileObject item = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Item",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"item\")",
+                "public class Item {",
+                "}"
+        );
+
+        for (String[] options : new String[][]{{"-Atypeindex.classLoading=eager"}, {"-Atypeindex.classLoading=lazy"},
+                {"-Atypeindex.switchLimit=1"}, {"-Atypeindex.switchLimit=1", "-Atypeindex.classLoading=lazy"}}) {
+            String mode = String.join(" ", options);
+            Compilation compilation = Compiler.javac()
+                    .withProcessors(new TypeIndexProcessor())
+                    .withOptions((Object[]) options)
+                    .compile(order, user, item);
+
+            assertThat(compilation).succeeded();
+
+            RegistryProvider provider = (RegistryProvider) generatedClassLoader(compilation)
+                    .loadClass("io.github.cyfko.typeindex.providers.RegistryProviderImpl")
+                    .getConstructor()
+                    .newInstance();
+
+            Class<?> orderType = provider.lookup("order");
+            assertEquals("io.github.cyfko.example.Order", orderType.getName(), mode);
+            assertSame(orderType, provider.lookup("purchase-order"), mode);
+            assertSame(orderType, provider.lookup("legacy.order"), mode);
+            assertSame(provider.lookup("user"), provider.lookup("customer"), mode);
+            assertNull(provider.lookup("legacy"), mode);
+            assertEquals("order", provider.keyOf(orderType), mode);
+            assertEquals("user", provider.keyOf(provider.lookup("customer")), mode);
+            assertEquals(Set.of("item", "order", "user"), Set.copyOf(provider.keys()), mode);
+            assertEquals(Set.of("item", "order", "user"), provider.getRegistry().keySet(), mode);
+            assertEquals(Map.of("purchase-order", "order", "legacy.order", "order", "customer", "user"),
+                    provider.getAliases(), mode);
+            assertEquals(List.of("item", "order", "user"), provider.getKeyIndex().keys(), mode);
+        }
+    }
+
+    @Test
+    void testInvalidOrConflictingAliasesFailCompilation() {
+        JavaFileObject order = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Order",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(value = \"order\", aliases = {\"po\", \"po\"})",
+                "public class Order {",
+                "}"
+        );
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(value = \"user\", aliases = \"client\")",
+                "public class User {",
+                "}"
+        );
+        JavaFileObject client = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Client",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(\"client\")",
+                "public class Client {",
+                "}"
+        );
+        JavaFileObject invoice = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Invoice",
+                "package io.github.cyfko.example;",
+                "",
+                "import io.github.cyfko.typeindex.TypeKey;",
+                "",
+                "@TypeKey(value = \"invoice\", aliases = {\"bill\", \"bad/alias\"})",
+                "public class Invoice {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .compile(order, user, client, invoice);
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("contains invalid characters");
+        assertThat(compilation).hadErrorContaining("Duplicate @TypeKey alias 'po' on io.github.cyfko.example.Order");
+        assertThat(compilation).hadErrorContaining("Already used as an alias by io.github.cyfko.example.User");
+        assertThat(compilation).hadErrorContaining("Cannot generate registry due to @TypeKey validation errors");
+    }
+
+    @Test
+    void testDuplicateTypeIdsFailCompilation() {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(value = \"user\", id = 3)",
+                "public class User {",
+                "}"
+        );
+        JavaFileObject order = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Order",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(value = \"order\", id = 3)",
+                "public class Order {",
+                "}"
+        );
+        JavaFileObject address = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.Address",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(value = \"address\", id = -5)",
+                "public class Address {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .compile(user, order, address);
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("Duplicate @TypeKey id 3");
+        assertThat(compilation).hadErrorContaining("First usage of @TypeKey id 3");
+        assertThat(compilation).hadErrorContaining("@TypeKey id -5 is out of range");
+    }
+
+    @Test
+    void testStatsOptionReportsEachRound() {
+        JavaFileObject user = JavaFileObjects.forSourceLines(
+                "io.github.cyfko.example.User",
+                "package io.github.cyfko.example;",
+                "",
+                "@io.github.cyfko.typeindex.TypeKey(\"user\")",
+                "public class User {",
+                "}"
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new TypeIndexProcessor())
+                .withOptions("-Atypeindex.stats")
+                .compile(user);
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadNoteContaining("TypeIndex round 1: validated 1 elements in");
+        assertThat(compilation).hadNoteContaining("TypeIndex generation: wrote io.github.cyfko.typeindex.providers.RegistryProviderImpl in");
+    }
+
+    /**
+     * Measures the wall time and the memory allocated by the processing of 1,000, 10,000 and
+     * 100,000 annotated types: once with valid keys, through validation and source writing, and
+     * once with a duplicate key, through duplicate detection. Only runs with
+     * {@code -Dtypeindex.largeTests=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "typeindex.largeTests", matches = "true")
+    void testProcessorScalability() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            for (boolean duplicate : new boolean[]{false, true}) {
+                JavaFileObject[] sources = annotatedModules(size, duplicate);
+
+                long allocated = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                // -proc:only leaves out the compilation of the sources, measured by javac itself
+                Compilation compilation = Compiler.javac()
+                        .withProcessors(new TypeIndexProcessor())
+                        .withOptions("-proc:only", "-Atypeindex.stats")
+                        .compile(sources);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+                System.out.printf("%,d types%s: processed in %d ms, %d MB allocated%n",
+                        size, duplicate ? " (duplicate key)" : "", millis, allocated >> 20);
+                compilation.notes().stream()
+                        .filter(note -> note.getMessage(null).startsWith("TypeIndex "))
+                        .forEach(note -> System.out.println("  " + note.getMessage(null)));
+
+                if (duplicate) {
+                    assertThat(compilation).failed();
+                    assertThat(compilation).hadErrorContaining("Duplicate @TypeKey value 'key-0'");
+                } else {
+                    assertThat(compilation).succeeded();
+                    assertThat(compilation).hadNoteContaining("Generated RegistryProviderImpl with " + size + " entries");
+                }
+            }
+        }
+    }
+
     // ==================== Helper Methods ====================
 
+    /**
+     * Generates {@code count} annotated types, as nested classes of modules of 1,000 types each.
+     * With {@code duplicate}, the last type reuses the key of the first one.
+     */
+    private static JavaFileObject[] annotatedModules(int count, boolean duplicate) {
+        JavaFileObject[] sources = new JavaFileObject[(count + 999) / 1000];
+        for (int f = 0; f < sources.length; f++) {
+            StringBuilder source = new StringBuilder("package io.github.cyfko.example;\npublic class Module" + f + " {\n");
+            for (int i = 0; i < 1000 && f * 1000 + i < count; i++) {
+                int key = duplicate && f * 1000 + i == count - 1 ? 0 : f * 1000 + i;
+                source.append("    @io.github.cyfko.typeindex.TypeKey(\"key-").append(key)
+                        .append("\") public static class Type").append(i).append(" {}\n");
+            }
+            sources[f] = JavaFileObjects.forSourceString("io.github.cyfko.example.Module" + f, source.append("}\n").toString());
+        }
+        return sources;
+    }
+
     /**
      * Extracts the generated RegistryProviderImpl source code from compilation results.
      */
+    /** @return A class loader defining the classes compiled or generated by a compilation. */
+    private ClassLoader generatedClassLoader(Compilation compilation) {
+        Map<String, JavaFileObject> classFiles = new HashMap<>();
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            if (file.getKind() == JavaFileObject.Kind.CLASS) {
+                classFiles.put(file.toUri().getPath(), file);
+            }
+        }
+
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                JavaFileObject file = classFiles.get("/CLASS_OUTPUT/" + name.replace('.', '/') + ".class");
+                if (file == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                try (InputStream in = file.openInputStream()) {
+                    byte[] bytes = in.readAllBytes();
+                    return defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        };
+    }
+
     private String getGeneratedRegistryCode(Compilation compilation) throws IOException {
         return compilation
                 .generatedSourceFile("io.github.cyfko.typeindex.providers.RegistryProviderImpl")
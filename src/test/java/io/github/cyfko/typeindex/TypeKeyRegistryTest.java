@@ -0,0 +1,601 @@
+package io.github.cyfko.typeindex;
+
+import io.github.cyfko.typeindex.model.EnvelopeBatch;
+import io.github.cyfko.typeindex.model.ParamEnvelope;
+import io.github.cyfko.typeindex.providers.KeyIndex;
+import io.github.cyfko.typeindex.providers.RegistryProvider;
+import io.github.cyfko.typeindex.providers.SubtypeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runtime tests for {@link TypeKeyRegistry}.
+ * <p>
+ * The annotation processor does not run on test sources, so these tests exercise the
+ * tiers that do not depend on a generated registry: primitives, arrays and classpath types.
+ */
+class TypeKeyRegistryTest {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void testKeyOfCoversPrimitivesArraysAndFallback() {
+        assertEquals("int", TypeKeyRegistry.keyOf(int.class));
+        assertEquals("boolean[]", TypeKeyRegistry.keyOf(boolean[].class));
+        assertEquals("java.lang.String", TypeKeyRegistry.keyOf(String.class));
+        assertEquals("java.lang.String[][]", TypeKeyRegistry.keyOf(String[][].class));
+        assertEquals("java.util.Map$Entry", TypeKeyRegistry.keyOf(java.util.Map.Entry.class));
+    }
+
+    @Test
+    void testKeyOfDoesNotAllocateOnceWarm() {
+        List<Class<?>> types = List.of(int.class, long[].class, String.class, String[][][].class, List.class);
+
+        for (int i = 0; i < 10_000; i++) {
+            keyOfAll(types);
+        }
+
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            keyOfAll(types);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        // 50k calls: any per-call allocation would account for hundreds of kilobytes.
+        assertTrue(allocated < 16 * 1024, "keyOf allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testTryResolveCoversAllTiersWithoutThrowing() {
+        assertEquals(Optional.of(int.class), TypeKeyRegistry.tryResolve("int"));
+        assertEquals(Optional.of(String[][].class), TypeKeyRegistry.tryResolve("java.lang.String[][]"));
+        assertEquals(Optional.of(String.class), TypeKeyRegistry.tryResolve("java.lang.String"));
+
+        assertEquals(Optional.empty(), TypeKeyRegistry.tryResolve("com.example.DoesNotExist"));
+        assertEquals(Optional.empty(), TypeKeyRegistry.tryResolve("com.example.DoesNotExist[]"));
+        assertFalse(TypeKeyRegistry.canResolve("com.example.DoesNotExist"));
+        assertTrue(TypeKeyRegistry.canResolve("long[]"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> TypeKeyRegistry.resolve("com.example.DoesNotExist"));
+        assertEquals("Type not found: com.example.DoesNotExist", e.getMessage());
+    }
+
+    @Test
+    void testArrayKeysAndJvmDescriptors() {
+        assertEquals(int[][].class, TypeKeyRegistry.resolve("int[][]"));
+        assertEquals(String[][][].class, TypeKeyRegistry.resolve("java.lang.String[][][]"));
+        assertEquals(String[].class, TypeKeyRegistry.resolve("[Ljava.lang.String;"));
+        assertEquals(int[][].class, TypeKeyRegistry.resolve("[[I"));
+        assertEquals(java.util.Map.Entry[].class, TypeKeyRegistry.resolve("[Ljava.util.Map$Entry;"));
+
+        assertFalse(TypeKeyRegistry.canResolve("[]"));
+        assertFalse(TypeKeyRegistry.canResolve("[Q"));
+        assertFalse(TypeKeyRegistry.canResolve("[Ljava.lang.String"));
+        assertFalse(TypeKeyRegistry.canResolve("void[]"));
+    }
+
+    @Test
+    void testArrayResolutionDoesNotAllocateOnceWarm() {
+        String[] keys = {"java.lang.String[][][]", "int[][][]", "[[[J"};
+
+        for (int i = 0; i < 10_000; i++) {
+            resolveAll(keys);
+        }
+
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            resolveAll(keys);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(allocated < 16 * 1024, "array resolution allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testNegativeCacheStaysBounded() {
+        NegativeResolutionCache cache = new NegativeResolutionCache(100, 60_000);
+        for (int i = 0; i < 1_000; i++) {
+            cache.add("missing-" + i);
+        }
+        assertTrue(cache.contains("missing-999"));
+
+        int cached = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (cache.contains("missing-" + i)) cached++;
+        }
+        assertTrue(cached <= 100, "cache holds " + cached + " entries");
+    }
+
+    @Test
+    void testNegativeCacheEntriesExpire() throws InterruptedException {
+        NegativeResolutionCache cache = new NegativeResolutionCache(100, 1);
+        cache.add("missing");
+        Thread.sleep(5);
+        assertFalse(cache.contains("missing"));
+    }
+
+    @Test
+    void testWarmUpReportsEveryPhase() {
+        WarmUpReport report = TypeKeyRegistry.warmUp(WarmUpOptions.defaults()
+                .withPreloading(WarmUpOptions.ClassPreloading.INITIALIZE)
+                .withVirtualThreads());
+
+        assertTrue(report.succeeded());
+        assertFalse(report.providerInitialization().isNegative());
+        assertFalse(report.keyIndexing().isNegative());
+        assertFalse(report.classPreloading().isNegative());
+        assertEquals(report.providerInitialization().plus(report.keyIndexing()).plus(report.classPreloading()),
+                report.total());
+    }
+
+    @Test
+    void testMergedProvidersAnswerForEveryModule() {
+        RegistryProvider orders = () -> Map.of("order", Integer.class, "shared", String.class);
+        RegistryProvider users = () -> Map.of("user", Long.class, "shared", String.class);
+
+        RegistryProvider merged = MergedRegistryProvider.merge(List.of(orders, users));
+
+        assertEquals(Integer.class, merged.lookup("order"));
+        assertEquals(Long.class, merged.lookup("user"));
+        assertEquals(String.class, merged.lookup("shared"));
+        assertNull(merged.lookup("missing"));
+        assertEquals("user", merged.keyOf(Long.class));
+        assertEquals(Set.of("order", "user", "shared"), Set.copyOf(merged.keys()));
+        assertEquals(3, merged.getRegistry().size());
+        assertSame(orders, MergedRegistryProvider.merge(List.of(orders)));
+    }
+
+    @Test
+    void testMergeRejectsKeysRegisteredForDifferentClasses() {
+        RegistryProvider orders = () -> Map.of("item", Integer.class);
+        RegistryProvider users = () -> Map.of("item", Long.class);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> MergedRegistryProvider.merge(List.of(orders, users)));
+        assertTrue(e.getMessage().contains("'item'"));
+    }
+
+    @Test
+    void testEnvelopeBatchRoundTripsLikeEnvelopeLists() {
+        Object[] params = {42, null, new String[]{"a"}, "text"};
+        EnvelopeBatch batch = TypeKeyRegistry.wrap(params, new EnvelopeBatch(1));
+
+        assertEquals(TypeKeyRegistry.wrap(params), batch.asList());
+        assertEquals("java.lang.String[]", batch.typeKey(2));
+        assertArrayEquals(params, TypeKeyRegistry.unwrap(batch, (value, type) -> type.cast(value)));
+        assertArrayEquals(params, TypeKeyRegistry.unwrap(batch.asList(), (value, type) -> type.cast(value)));
+
+        TypeKeyRegistry.wrap(new Object[]{1L}, batch);
+        assertEquals(List.of(new ParamEnvelope("java.lang.Long", 1L)), batch.asList());
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.value(1));
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    void testReusedEnvelopeBatchDoesNotAllocateOnceWarm() {
+        Object[] params = {1, "text", null, new int[0], 2.0};
+        EnvelopeBatch batch = new EnvelopeBatch();
+
+        for (int i = 0; i < 10_000; i++) {
+            TypeKeyRegistry.wrap(params, batch);
+        }
+
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            TypeKeyRegistry.wrap(params, batch);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(5, batch.size());
+        assertTrue(allocated < 16 * 1024, "wrapping into a batch allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testStreamingUnwrapMapsLazilyAndResolvesKeysOnce() {
+        Object[] params = {1, "a", null, 2L, "b", 3};
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(params);
+        Map<Class<?>, Integer> calls = new HashMap<>();
+
+        Iterator<Object> values = TypeKeyRegistry.unwrap(envelopes.iterator(), (value, type) -> {
+            calls.merge(type, 1, Integer::sum);
+            return value;
+        });
+        assertTrue(calls.isEmpty());
+        assertEquals(1, values.next());
+        assertEquals(Map.of(Integer.class, 1), calls);
+
+        List<Object> rest = new ArrayList<>();
+        values.forEachRemaining(rest::add);
+        assertEquals(Arrays.asList("a", null, 2L, "b", 3), rest);
+
+        assertEquals(Arrays.asList(params),
+                TypeKeyRegistry.unwrap(envelopes.stream(), (value, type) -> type.cast(value)).toList());
+        assertEquals(Arrays.asList(params),
+                TypeKeyRegistry.unwrap(envelopes.parallelStream(), (value, type) -> type.cast(value)).toList());
+
+        Iterator<Object> missing = TypeKeyRegistry.unwrap(
+                List.of(new ParamEnvelope("com.example.DoesNotExist", 1)).iterator(), (value, type) -> value);
+        assertThrows(IllegalStateException.class, missing::next);
+    }
+
+    @Test
+    void testStreamingUnwrapCanBeMadeParallelDownstream() {
+        Object[] params = new Object[20_000];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = switch (i % 5) {
+                case 0 -> i;
+                case 1 -> (long) i;
+                case 2 -> "s" + i;
+                case 3 -> (short) i;
+                default -> i % 2 == 0;
+            };
+        }
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(params);
+
+        for (int run = 0; run < 20; run++) {
+            List<Object> values = TypeKeyRegistry.unwrap(envelopes.stream(), (value, type) -> type.cast(value))
+                    .parallel()
+                    .toList();
+            assertEquals(Arrays.asList(params), values);
+        }
+    }
+
+    @Test
+    void testStreamingUnwrapResolvesManyDistinctKeys() {
+        // More distinct keys than the per-sequence cache holds, cycled so that slots get replaced
+        List<ParamEnvelope> envelopes = new ArrayList<>();
+        List<Class<?>> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Class<?> type = int.class;
+            for (int d = i % 200; d >= 0; d--) {
+                type = type.arrayType();
+            }
+            envelopes.add(new ParamEnvelope(TypeKeyRegistry.keyOf(type), null));
+            expected.add(type);
+        }
+
+        List<Object> types = new ArrayList<>();
+        TypeKeyRegistry.unwrap(envelopes.iterator(), (value, type) -> type).forEachRemaining(types::add);
+        assertEquals(expected, types);
+        assertEquals(expected, TypeKeyRegistry.unwrap(envelopes.stream(), (value, type) -> type).parallel().toList());
+    }
+
+    @Test
+    void testStreamingUnwrapHandlesUnboundedSequences() {
+        long sum = TypeKeyRegistry.unwrap(
+                        Stream.iterate(0, i -> i + 1).map(i -> new ParamEnvelope("java.lang.Integer", i)),
+                        (value, type) -> value)
+                .limit(1_000_000)
+                .mapToLong(value -> (Integer) value)
+                .sum();
+
+        assertEquals(999_999L * 1_000_000 / 2, sum);
+    }
+
+    @Test
+    void testParallelWrapAndUnwrapKeepOrder() {
+        Object[] params = new Object[1_000];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = i % 3 == 0 ? null : i % 3 == 1 ? (Object) i : "value-" + i;
+        }
+        ParallelOptions options = ParallelOptions.defaults().withChunkSize(7);
+
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(params, options);
+        assertEquals(TypeKeyRegistry.wrap(params), envelopes);
+
+        assertArrayEquals(params, TypeKeyRegistry.unwrap(envelopes, (value, type) -> type.cast(value), options));
+        assertArrayEquals(params, TypeKeyRegistry.unwrap(envelopes, (value, type) -> {
+            LockSupport.parkNanos(100_000); // a blocking mapper
+            return value;
+        }, options.withVirtualThreads()));
+    }
+
+    @Test
+    void testParallelUnwrapKeepsSmallInputsOnTheCallingThread() {
+        Thread caller = Thread.currentThread();
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(new Object[]{1, 2, 3});
+
+        TypeKeyRegistry.unwrap(envelopes, (value, type) -> {
+            assertSame(caller, Thread.currentThread());
+            return value;
+        }, ParallelOptions.defaults());
+    }
+
+    @Test
+    void testParallelUnwrapRethrowsMapperFailures() {
+        List<ParamEnvelope> envelopes = new ArrayList<>(TypeKeyRegistry.wrap(new Object[100]));
+        envelopes.set(42, new ParamEnvelope("com.example.DoesNotExist", 1));
+        ParallelOptions options = ParallelOptions.defaults().withThreshold(1);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> TypeKeyRegistry.unwrap(envelopes, (value, type) -> value, options));
+        assertEquals("Type not found: com.example.DoesNotExist", e.getMessage());
+
+        List<ParamEnvelope> values = TypeKeyRegistry.wrap(new Object[]{1, 2, 3, 4});
+        assertThrows(UnsupportedOperationException.class, () -> TypeKeyRegistry.unwrap(values, (value, type) -> {
+            throw new UnsupportedOperationException();
+        }, options));
+    }
+
+    @Test
+    void testUnwrapPlansAreCachedBySignatureAndUnwrapLikeUnwrap() {
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(new Object[]{1, "text", null, new int[]{2}});
+        UnwrapPlan plan = TypeKeyRegistry.unwrapPlanOf(envelopes);
+
+        assertSame(plan, TypeKeyRegistry.unwrapPlan(List.of("java.lang.Integer", "java.lang.String", "null", "int[]")));
+        assertEquals(List.of("java.lang.Integer", "java.lang.String", "null", "int[]"), plan.typeKeys());
+        assertSame(int[].class, plan.type(3));
+        assertNull(plan.type(2));
+
+        BiFunction<Object, Class<?>, Object> mapper = (value, type) -> type.cast(value);
+        assertArrayEquals(TypeKeyRegistry.unwrap(envelopes, mapper), plan.unwrap(envelopes, mapper));
+        assertThrows(IllegalArgumentException.class,
+                () -> plan.unwrap(TypeKeyRegistry.wrap(new Object[]{1, "text", "not null", new int[0]}), mapper));
+        assertThrows(IllegalStateException.class, () -> plan.unwrap(envelopes));
+        assertThrows(IllegalStateException.class, () -> TypeKeyRegistry.unwrapPlan(List.of("com.example.DoesNotExist")));
+    }
+
+    @Test
+    void testBoundUnwrapPlansCallTheBinderOncePerSlot() {
+        List<Class<?>> bound = new ArrayList<>();
+        Function<Class<?>, Function<Object, ?>> binder = type -> {
+            bound.add(type);
+            return value -> type.getSimpleName() + ":" + value;
+        };
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(new Object[]{1, null, "a"});
+        UnwrapPlan plan = TypeKeyRegistry.unwrapPlanOf(envelopes);
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new Object[]{"Integer:1", null, "String:a"}, plan.bind(binder).unwrap(envelopes));
+        }
+        assertEquals(List.of(Integer.class, String.class), bound);
+    }
+
+    @Test
+    void testBoundUnwrapPlansAreKeptPerCapturingBinder() {
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(new Object[]{1, "a"});
+        UnwrapPlan plan = TypeKeyRegistry.unwrapPlanOf(envelopes);
+        List<String> bound = new ArrayList<>();
+        Function<Class<?>, Function<Object, ?>> upper = prefixing("upper", bound);
+        Function<Class<?>, Function<Object, ?>> lower = prefixing("lower", bound);
+
+        // Dispatchers alternating their binders keep both bindings
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new Object[]{"upper:1", "upper:a"}, plan.bind(upper).unwrap(envelopes));
+            assertArrayEquals(new Object[]{"lower:1", "lower:a"}, plan.bind(lower).unwrap(envelopes));
+        }
+        assertEquals(4, bound.size());
+
+        // A binder evaluated on every call is a new instance, bound again each time
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new Object[]{"fresh:1", "fresh:a"}, plan.bind(prefixing("fresh", bound)).unwrap(envelopes));
+        }
+        assertEquals(10, bound.size());
+    }
+
+    @Test
+    void testThrowawayBindersDoNotKeepLaterOnesFromBeingCached() {
+        List<ParamEnvelope> envelopes = TypeKeyRegistry.wrap(new Object[]{1, "a"});
+        UnwrapPlan plan = TypeKeyRegistry.unwrapPlanOf(envelopes);
+        List<String> bound = new ArrayList<>();
+
+        List<Function<Class<?>, Function<Object, ?>>> throwaway = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            throwaway.add(prefixing("throwaway" + i, bound));
+            plan.bind(throwaway.get(i));
+        }
+
+        Function<Class<?>, Function<Object, ?>> stable = prefixing("stable", bound);
+        bound.clear();
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new Object[]{"stable:1", "stable:a"}, plan.bind(stable).unwrap(envelopes));
+        }
+        assertEquals(List.of("stable:Integer", "stable:String"), bound);
+    }
+
+    @Test
+    void testWrapPlansWrapLikeWrap() {
+        WrapPlan plan = TypeKeyRegistry.wrapPlan(int.class, CharSequence.class, Object.class, List.class, int[].class);
+        Object[][] calls = {
+                {1, "text", null, List.of(1), new int[0]},
+                {2, new StringBuilder("builder"), 3L, new ArrayList<>(), null},
+        };
+
+        EnvelopeBatch batch = new EnvelopeBatch();
+        for (Object[] args : calls) {
+            assertEquals(TypeKeyRegistry.wrap(args), plan.wrap(args));
+            assertEquals(TypeKeyRegistry.wrap(args), plan.wrap(args, batch).asList());
+        }
+        assertThrows(IllegalArgumentException.class, () -> plan.wrap(new Object[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> TypeKeyRegistry.wrapPlan(void.class));
+    }
+
+    @Test
+    void testMergedProvidersMergeTypeIds() {
+        RegistryProvider orders = registry(Map.of("order", Integer.class), Map.of("order", 0));
+        RegistryProvider users = registry(Map.of("user", Long.class), Map.of("user", 1));
+        RegistryProvider conflicting = registry(Map.of("item", Short.class), Map.of("item", 1));
+
+        assertEquals(Map.of("order", 0, "user", 1), MergedRegistryProvider.merge(List.of(orders, users)).getTypeIds());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> MergedRegistryProvider.merge(List.of(users, conflicting)));
+        assertTrue(e.getMessage().contains("1 ('user', 'item')"));
+    }
+
+    @Test
+    void testResolveSubtypeChecksAssignability() {
+        assertSame(Integer.class, TypeKeyRegistry.resolveSubtype("java.lang.Integer", Number.class));
+        assertSame(ArrayList.class, TypeKeyRegistry.resolveSubtype("java.util.ArrayList", List.class));
+        assertSame(String.class, TypeKeyRegistry.resolveSubtype("java.lang.String", String.class));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TypeKeyRegistry.resolveSubtype("java.lang.String", Number.class));
+        assertTrue(e.getMessage().contains("Expected a subtype of java.lang.Number, found: java.lang.String"));
+        assertThrows(IllegalStateException.class, () -> TypeKeyRegistry.resolveSubtype("com.example.Missing", Object.class));
+    }
+
+    @Test
+    void testMergedProvidersMergeSubtypeIndexes() {
+        RegistryProvider numbers = registry(Map.of("int", Integer.class, "long", Long.class), Map.of());
+        RegistryProvider texts = registry(Map.of("string", String.class, "builder", StringBuilder.class), Map.of());
+        SubtypeIndex index = MergedRegistryProvider.merge(List.of(numbers, texts, numbers)).getSubtypeIndex();
+
+        assertEquals(Set.of("int", "long"), Set.copyOf(index.subtypeKeys(Number.class.getName())));
+        assertEquals(Set.of("string", "builder"), Set.copyOf(index.subtypeKeys(CharSequence.class.getName())));
+        assertEquals(Set.of("int", "long", "string", "builder"), Set.copyOf(index.subtypeKeys(Comparable.class.getName())));
+        assertEquals(List.of("builder"), index.subtypeKeys(StringBuilder.class.getName()));
+        assertEquals(List.of(), index.subtypeKeys(List.class.getName()));
+        assertFalse(index.supertypes().contains(Object.class.getName()));
+    }
+
+    @Test
+    void testSubtypesOfListsOnlyRegisteredTypes() {
+        // No provider is generated for test sources: nothing is registered
+        assertEquals(List.of(), TypeKeyRegistry.subtypesOf(Number.class));
+        assertSame(TypeKeyRegistry.subtypesOf(Number.class), TypeKeyRegistry.subtypesOf(Number.class));
+    }
+
+    @Test
+    void testMergedProvidersMergeKeyIndexes() {
+        RegistryProvider time = registry(Map.of("time.date", LocalDate.class, "time.unit", ChronoUnit.class), Map.of());
+        RegistryProvider util = registry(Map.of("util.uuid", UUID.class, "time.zone", ZoneId.class), Map.of());
+        KeyIndex index = MergedRegistryProvider.merge(List.of(time, util, time)).getKeyIndex();
+
+        assertEquals(List.of("time.date", "time.unit", "time.zone", "util.uuid"), index.keys());
+        assertEquals(List.of("time.date", "time.unit", "time.zone"), index.keysWithPrefix("time."));
+        assertEquals(List.of("time.date", "time.zone"), index.keysInPackage("java.time"));
+        assertEquals(List.of("time.unit"), index.keysOfKind(TypeKind.ENUM));
+        assertEquals(List.of(), index.keysOfKind(TypeKind.RECORD));
+    }
+
+    @Test
+    void testPrefixPackageAndKindQueriesListOnlyRegisteredTypes() {
+        // No provider is generated for test sources: nothing is registered
+        assertEquals(List.of(), TypeKeyRegistry.keysWithPrefix(""));
+        assertEquals(List.of(), TypeKeyRegistry.typesInPackage("java.lang"));
+        assertEquals(List.of(), TypeKeyRegistry.typesOfKind(TypeKind.RECORD));
+        assertSame(TypeKeyRegistry.typesOfKind(TypeKind.ENUM), TypeKeyRegistry.typesOfKind(TypeKind.ENUM));
+        assertThrows(NullPointerException.class, () -> TypeKeyRegistry.keysWithPrefix(null));
+    }
+
+    enum Operation {
+        PLUS {
+            @Override
+            int apply(int a, int b) {
+                return a + b;
+            }
+        };
+
+        abstract int apply(int a, int b);
+    }
+
+    @Test
+    void testTypeKindsCoverEnumConstantsWithABody() {
+        assertNotSame(Operation.class, Operation.PLUS.getClass());
+        assertEquals(TypeKind.ENUM, TypeKind.of(Operation.class));
+        assertEquals(TypeKind.ENUM, TypeKind.of(Operation.PLUS.getClass()));
+        assertEquals(TypeKind.CLASS, TypeKind.of(Enum.class));
+        assertEquals(TypeKind.RECORD, TypeKind.of(ParamEnvelope.class));
+        assertEquals(TypeKind.CLASS, TypeKind.of(Comparable.class));
+    }
+
+    @Test
+    void testMergedProvidersResolveAliasesOfEveryModule() {
+        RegistryProvider orders = registry(Map.of("order", Integer.class), Map.of(), Map.of("purchase", "order"));
+        RegistryProvider users = registry(Map.of("user", Long.class), Map.of(), Map.of("customer", "user"));
+        RegistryProvider merged = MergedRegistryProvider.merge(List.of(orders, users, orders));
+
+        assertSame(Integer.class, merged.lookup("purchase"));
+        assertSame(Long.class, merged.lookup("customer"));
+        assertEquals("user", merged.keyOf(Long.class));
+        assertEquals(Set.of("order", "user"), Set.copyOf(merged.keys()));
+        assertEquals(Map.of("purchase", "order", "customer", "user"), merged.getAliases());
+
+        RegistryProvider conflicting = registry(Map.of("purchase", Short.class), Map.of());
+        assertThrows(IllegalStateException.class, () -> MergedRegistryProvider.merge(List.of(orders, conflicting)));
+
+        // The same string as a key of one module and an alias of another, for the same class
+        RegistryProvider purchases = registry(Map.of("purchase", Integer.class), Map.of());
+        for (List<RegistryProvider> modules : List.of(List.of(orders, purchases), List.of(purchases, orders))) {
+            RegistryProvider both = MergedRegistryProvider.merge(modules);
+            assertEquals(Set.of("order", "purchase"), Set.copyOf(both.keys()));
+            assertSame(Integer.class, both.lookup("purchase"));
+            assertEquals(Map.of(), both.getAliases());
+        }
+    }
+
+    @Test
+    void testTypesWithoutIdsHaveNone() {
+        assertEquals(TypeKey.NO_ID, TypeKeyRegistry.idOf(String.class));
+        assertThrows(IllegalStateException.class, () -> TypeKeyRegistry.resolveById(0));
+        assertThrows(IllegalStateException.class, () -> TypeKeyRegistry.resolveById(-1));
+    }
+
+    private static RegistryProvider registry(Map<String, Class<?>> registry, Map<String, Integer> typeIds) {
+        return registry(registry, typeIds, Map.of());
+    }
+
+    private static RegistryProvider registry(Map<String, Class<?>> registry, Map<String, Integer> typeIds,
+                                             Map<String, String> aliases) {
+        return new RegistryProvider() {
+            @Override
+            public Map<String, Class<?>> getRegistry() {
+                return registry;
+            }
+
+            @Override
+            public Map<String, Integer> getTypeIds() {
+                return typeIds;
+            }
+
+            @Override
+            public Map<String, String> getAliases() {
+                return aliases;
+            }
+        };
+    }
+
+    private static void resolveAll(String[] keys) {
+        for (String key : keys) {
+            assertNotNull(TypeKeyRegistry.resolve(key));
+        }
+    }
+
+    private static void keyOfAll(List<Class<?>> types) {
+        for (int t = 0; t < types.size(); t++) {
+            assertNotNull(TypeKeyRegistry.keyOf(types.get(t)));
+        }
+    }
+
+    /** @return A binder capturing {@code prefix}, recording each binding in {@code bound}. */
+    private static Function<Class<?>, Function<Object, ?>> prefixing(String prefix, List<String> bound) {
+        return type -> {
+            bound.add(prefix + ":" + type.getSimpleName());
+            return value -> prefix + ":" + value;
+        };
+    }
+}